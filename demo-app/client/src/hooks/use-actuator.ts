@@ -20,6 +20,16 @@ export function useActuator(actuatorBaseUrl: string) {
     }
   }, []);
 
+  const fetchLimiters = useCallback(async () => {
+    try {
+      const response = await apiRequest('GET', `/api/limiters?url=${encodeURIComponent(actuatorBaseUrl)}`);
+      return await response.json();
+    } catch (error) {
+      console.error('Error fetching limiter snapshot:', error);
+      return undefined;
+    }
+  }, [actuatorBaseUrl]);
+
   const refreshMetrics = useCallback(async () => {
     setIsLoading(true);
     try {
@@ -34,20 +44,8 @@ export function useActuator(actuatorBaseUrl: string) {
 
       setIsConnected(true);
 
-      // Now fetch individual metrics data
-      const bulkheadPromises = [
-        fetchMetricValue('bulkhead.available'),
-        fetchMetricValue('bulkhead.queue.size'),
-        fetchMetricValue('bulkhead.rejected'),
-        fetchMetricValue('bulkhead.success')
-      ];
-
-      const ratelimitPromises = [
-        fetchMetricValue('ratelimit.available'),
-        fetchMetricValue('ratelimit.rejected'),
-        fetchMetricValue('ratelimit.remaining.window'),
-        fetchMetricValue('ratelimit.success')
-      ];
+      // Bulkhead and rate limit state of every policy comes in a single snapshot
+      const limitersPromise = fetchLimiters();
 
       const systemPromises = [
         fetchMetricValue('system.cpu.count'),
@@ -61,29 +59,35 @@ export function useActuator(actuatorBaseUrl: string) {
 
       // Wait for all metrics to load
       const [
-        bulkheadAvailable, bulkheadQueueSize, bulkheadRejected, bulkheadSuccess,
-        ratelimitAvailable, ratelimitRejected, ratelimitRemainingWindow, ratelimitSuccess,
+        limiters,
         systemCpuCount, systemCpuUsage,
         jvmThreadsLive, jvmMemoryUsed
       ] = await Promise.all([
-        ...bulkheadPromises,
-        ...ratelimitPromises,
+        limitersPromise,
         ...systemPromises,
         ...jvmPromises
       ]);
 
+      // Totals across policies, as the untagged actuator metrics reported them
+      const policies: any[] = Object.values(limiters?.policies ?? {});
+      const sum = (value: (policy: any) => number | undefined) =>
+        policies.length > 0 ? policies.reduce((total, policy) => total + (value(policy) ?? 0), 0) : undefined;
+      const remainingWindowMillis = policies.length > 0
+        ? Math.max(...policies.map(policy => policy.rateLimit?.remainingWindowMillis ?? 0))
+        : undefined;
+
       setMetrics({
         bulkhead: {
-          available: bulkheadAvailable,
-          queueSize: bulkheadQueueSize,
-          rejected: bulkheadRejected,
-          success: bulkheadSuccess
+          available: sum(policy => policy.bulkhead?.available),
+          queueSize: sum(policy => policy.bulkhead?.queueSize),
+          rejected: sum(policy => policy.calls?.bulkheadRejected),
+          success: sum(policy => policy.calls?.bulkheadSuccess)
         },
         ratelimit: {
-          available: ratelimitAvailable,
-          rejected: ratelimitRejected,
-          remainingWindow: ratelimitRemainingWindow !== undefined ? `${ratelimitRemainingWindow.toFixed(1)}s` : undefined,
-          success: ratelimitSuccess
+          available: sum(policy => policy.rateLimit?.available),
+          rejected: sum(policy => policy.calls?.rateLimitRejected),
+          remainingWindow: remainingWindowMillis !== undefined ? `${(remainingWindowMillis / 1000).toFixed(1)}s` : undefined,
+          success: sum(policy => policy.calls?.rateLimitSuccess)
         },
         system: {
           cpuCount: systemCpuCount,
@@ -107,7 +111,7 @@ export function useActuator(actuatorBaseUrl: string) {
     } finally {
       setIsLoading(false);
     }
-  }, [actuatorBaseUrl, fetchMetricValue, toast]);
+  }, [actuatorBaseUrl, fetchLimiters, fetchMetricValue, toast]);
 
   // Initial load
   useEffect(() => {
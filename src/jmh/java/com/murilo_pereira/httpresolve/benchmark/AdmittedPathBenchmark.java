@@ -0,0 +1,52 @@
+package com.murilo_pereira.httpresolve.benchmark;
+
+import com.murilo_pereira.httpresolve.core.BoundPolicy;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An admitted call through {@link BulkheadRateLimitManager#execute(BoundPolicy, String, Object,
+ * BulkheadRateLimitManager.Invocation)} with a non-capturing invocation, the path expected to
+ * allocate nothing. Run with {@code -prof gc}, or through {@link AllocationCheck}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdmittedPathBenchmark {
+	private static final BulkheadRateLimitManager.Invocation<AdmittedPathBenchmark, Object> CALL =
+			AdmittedPathBenchmark::work;
+
+	private BulkheadRateLimitManager manager;
+	private BoundPolicy policy;
+	// Returned as is, so that no result is boxed
+	private final Object result = new Object();
+
+	@Setup
+	public void setUp() {
+		manager = Benchmarks.manager();
+		policy = manager.bind(Benchmarks.POLICY, false);
+	}
+
+	private static Object work(AdmittedPathBenchmark state) {
+		return state.result;
+	}
+
+	@Benchmark
+	public Object execute() throws Throwable {
+		return manager.execute(policy, null, this, CALL);
+	}
+}
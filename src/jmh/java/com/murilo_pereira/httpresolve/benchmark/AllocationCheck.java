@@ -0,0 +1,46 @@
+package com.murilo_pereira.httpresolve.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link AdmittedPathBenchmark} with the GC profiler and fails when the admitted path allocates.
+ * The limit leaves room for the fraction of a byte JMH's own bookkeeping spreads over each operation.
+ */
+public final class AllocationCheck {
+	private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+	private static final double MAX_BYTES_PER_OP = 1.0;
+
+	private AllocationCheck() {
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(AdmittedPathBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		boolean failed = false;
+		for (RunResult run : new Runner(options).run()) {
+			String benchmark = run.getParams().getBenchmark();
+			Result<?> allocation = run.getSecondaryResults().get(ALLOCATION_METRIC);
+			if (allocation == null) {
+				System.err.println("No " + ALLOCATION_METRIC + " reported for " + benchmark);
+				failed = true;
+			} else if (allocation.getScore() > MAX_BYTES_PER_OP) {
+				System.err.printf("%s allocates %.2f B/op, at most %.2f expected%n",
+						benchmark, allocation.getScore(), MAX_BYTES_PER_OP);
+				failed = true;
+			} else {
+				System.out.printf("%s allocates %.3f B/op%n", benchmark, allocation.getScore());
+			}
+		}
+		if (failed) {
+			System.exit(1);
+		}
+	}
+}
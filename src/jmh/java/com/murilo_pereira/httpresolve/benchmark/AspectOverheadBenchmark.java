@@ -0,0 +1,57 @@
+package com.murilo_pereira.httpresolve.benchmark;
+
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.interceptor.BulkheadRateLimitAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the aspect on an admitted call, before and after invocation plans.
+ * {@code unprotected} calls the service directly, {@code perCallResolution} goes through the aspect
+ * resolving everything on each call, and {@code invocationPlan} through the current aspect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AspectOverheadBenchmark {
+	private Benchmarks.Service direct;
+	private Benchmarks.Service perCallResolution;
+	private Benchmarks.Service invocationPlan;
+	private int value = 42;
+
+	@Setup
+	public void setUp() {
+		BulkheadRateLimitManager manager = Benchmarks.manager();
+		direct = new Benchmarks.Service();
+		perCallResolution = Benchmarks.proxy(new Benchmarks.Service(), new PerCallResolutionAspect(manager));
+		invocationPlan = Benchmarks.proxy(new Benchmarks.Service(), new BulkheadRateLimitAspect(manager));
+	}
+
+	@Benchmark
+	public int unprotected() {
+		return direct.call(value);
+	}
+
+	@Benchmark
+	public int perCallResolution() {
+		return perCallResolution.call(value);
+	}
+
+	@Benchmark
+	public int invocationPlan() {
+		return invocationPlan.call(value);
+	}
+}
@@ -0,0 +1,58 @@
+package com.murilo_pereira.httpresolve.benchmark;
+
+import com.murilo_pereira.httpresolve.annotation.BulkheadRateLimit;
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+
+/**
+ * Shared fixtures of the benchmarks: a policy that admits every call, so only the overhead is measured
+ */
+final class Benchmarks {
+	static final String POLICY = "bench";
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * Manager with a single policy whose bulkhead and rate limit never reject at benchmark rates
+	 */
+	static BulkheadRateLimitManager manager() {
+		BulkheadRateLimitProperties.PolicyConfig policy = new BulkheadRateLimitProperties.PolicyConfig();
+		policy.getBulkhead().setType("ATOMIC");
+		policy.getBulkhead().setMaxConcurrentCalls(1024);
+		policy.getRateLimit().setStrategy("GCRA");
+		policy.getRateLimit().setLimit(1_000_000_000);
+		policy.getRateLimit().setWindow(Duration.ofSeconds(1));
+
+		BulkheadRateLimitProperties properties = new BulkheadRateLimitProperties();
+		properties.getPolicies().put(POLICY, policy);
+		BulkheadRateLimitRegistry registry = new BulkheadRateLimitRegistry(properties);
+		registry.initialize();
+		return new BulkheadRateLimitManager(registry);
+	}
+
+	/**
+	 * Proxies a service through an aspect, as Spring AOP does for a bean
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T proxy(T target, Object aspect) {
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(aspect);
+		return (T) factory.getProxy();
+	}
+
+	/**
+	 * Protected service; public and non-final so it can be proxied
+	 */
+	public static class Service {
+		@BulkheadRateLimit(POLICY)
+		public int call(int value) {
+			return value + 1;
+		}
+	}
+}
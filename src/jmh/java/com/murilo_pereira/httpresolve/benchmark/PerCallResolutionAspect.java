@@ -0,0 +1,54 @@
+package com.murilo_pereira.httpresolve.benchmark;
+
+import com.murilo_pereira.httpresolve.annotation.BulkheadRateLimit;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * The aspect as it was before invocation plans, the baseline of {@link AspectOverheadBenchmark}: the
+ * annotation, the method identifier and the policy are resolved on every call, and the call is wrapped
+ * in a capturing supplier
+ */
+@Aspect
+public class PerCallResolutionAspect {
+	private static final Logger log = LoggerFactory.getLogger(PerCallResolutionAspect.class);
+
+	private final BulkheadRateLimitManager manager;
+
+	public PerCallResolutionAspect(BulkheadRateLimitManager manager) {
+		this.manager = manager;
+	}
+
+	@Around("@annotation(com.murilo_pereira.httpresolve.annotation.BulkheadRateLimit)")
+	public Object applyBulkheadRateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
+		MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+		Method method = signature.getMethod();
+
+		BulkheadRateLimit annotation = method.getAnnotation(BulkheadRateLimit.class);
+		String policyName = annotation.value();
+		boolean fallbackToDefault = annotation.fallbackToDefault();
+		String methodIdentifier = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+
+		try {
+			log.debug("Applying bulkhead/rate-limit [{}] to method: {}", policyName, methodIdentifier);
+			return manager.execute(policyName, fallbackToDefault, null, () -> {
+				try {
+					return joinPoint.proceed();
+				} catch (Throwable e) {
+					throw new RuntimeException(e);
+				}
+			});
+		} catch (BulkheadRateLimitException e) {
+			log.debug("Bulkhead/Rate-limit [{}] rejected execution of method: {}", policyName, methodIdentifier);
+			throw e;
+		}
+	}
+}
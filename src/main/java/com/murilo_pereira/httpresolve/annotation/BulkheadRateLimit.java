@@ -21,4 +21,47 @@ public @interface BulkheadRateLimit {
 	 * Whether to fallback to a default policy if specified one not found
 	 */
 	boolean fallbackToDefault() default false;
+
+	/**
+	 * SpEL expression resolving the caller key; each distinct key gets its own rate limit state.
+	 * Method arguments are available as {@code #name}/{@code #p0}, and the current request as
+	 * {@code ip}, {@code header('X-Tenant')}, {@code principal} or {@code request}.
+	 * Empty (default) shares one rate limit across all callers.
+	 */
+	String key() default "";
+
+	/**
+	 * Number of permits a call takes from the rate limit and the bulkhead (default: 1), so that
+	 * expensive calls such as batches or bulk exports weigh more than cheap ones
+	 */
+	int cost() default 1;
+
+	/**
+	 * SpEL expression computing the cost of each call, such as {@code #items.size()}, with the
+	 * same variables as {@link #key()}. Overrides {@link #cost()}; results below 1 count as 1.
+	 */
+	String costExpression() default "";
+
+	/**
+	 * Criticality of the calls once the bulkhead is saturated (default: CRITICAL). Waiting calls of
+	 * a higher criticality are served first, and the least critical are shed first when the queue is full.
+	 * Applies to the asynchronous queue of every bulkhead, and to blocked callers with the PRIORITY bulkhead.
+	 */
+	Criticality criticality() default Criticality.CRITICAL;
+
+	/**
+	 * SpEL expression resolving the tenant a call is made for, such as {@code header('X-Tenant')}, with the
+	 * same variables as {@link #key()}. A FAIR_SHARE bulkhead serves the waiting calls of each tenant in turn,
+	 * and admissions and waits are counted per tenant, for synchronous, asynchronous and reactive methods alike;
+	 * empty (default) names no tenant.
+	 */
+	String tenant() default "";
+
+	/**
+	 * SpEL expression resolving the key whose calls in flight are capped by the policy's
+	 * {@code maxConcurrentCallsPerKey}, such as a customer or a downstream host, with the same variables
+	 * as {@link #key()}. Asynchronous and reactive calls hold their key until they complete; empty (default)
+	 * leaves calls uncapped per key.
+	 */
+	String concurrencyKey() default "";
 }
@@ -0,0 +1,29 @@
+package com.murilo_pereira.httpresolve.annotation;
+
+/**
+ * How important a call is once the bulkhead is saturated, from the first to be shed to the last
+ * <p>
+ * Freed permits go to the waiting calls of the highest criticality first. When the queue is full,
+ * a call takes the place of the newest waiter of a lower criticality, which is rejected.
+ */
+public enum Criticality {
+	/**
+	 * Best-effort work, such as prefetches or background refreshes; shed first
+	 */
+	SHEDDABLE,
+
+	/**
+	 * Work that may be shed, after {@link #SHEDDABLE}
+	 */
+	SHEDDABLE_PLUS,
+
+	/**
+	 * Regular traffic (default)
+	 */
+	CRITICAL,
+
+	/**
+	 * Traffic to protect above all, such as checkouts or payments; shed last
+	 */
+	CRITICAL_PLUS
+}
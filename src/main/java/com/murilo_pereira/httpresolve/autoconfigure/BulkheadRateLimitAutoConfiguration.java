@@ -2,19 +2,33 @@ package com.murilo_pereira.httpresolve.autoconfigure;
 
 import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
 import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRefreshListener;
 import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
+import com.murilo_pereira.httpresolve.core.filter.BulkheadRateLimitFilter;
+import com.murilo_pereira.httpresolve.core.filter.BulkheadRateLimitWebFilter;
 import com.murilo_pereira.httpresolve.core.interceptor.BulkheadRateLimitAspect;
+import com.murilo_pereira.httpresolve.metrics.BulkheadRateLimitEndpoint;
 import com.murilo_pereira.httpresolve.metrics.BulkheadRateLimitMetrics;
+import com.murilo_pereira.httpresolve.store.InMemoryRateLimitStore;
+import com.murilo_pereira.httpresolve.store.JdbcRateLimitStore;
+import com.murilo_pereira.httpresolve.store.RateLimitStore;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
 
 /**
  * Auto-configuration for Bulkhead and Rate Limit
@@ -24,32 +38,127 @@ import org.springframework.context.annotation.Lazy;
 @EnableConfigurationProperties(BulkheadRateLimitProperties.class)
 @ConditionalOnProperty(value = "bulkhead-rate-limit.enabled", havingValue = "true", matchIfMissing = true)
 public class BulkheadRateLimitAutoConfiguration {
+	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitAutoConfiguration.class);
 
 	@Bean
 	@ConditionalOnMissingBean
-	public BulkheadRateLimitRegistry bulkheadRateLimitRegistry(BulkheadRateLimitProperties properties) {
-		return new BulkheadRateLimitRegistry(properties);
+	public BulkheadRateLimitRegistry bulkheadRateLimitRegistry(BulkheadRateLimitProperties properties,
+															   ObjectProvider<RateLimitStore> store) {
+		return new BulkheadRateLimitRegistry(properties, store.getIfAvailable());
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
-	@ConditionalOnClass(MeterRegistry.class)
-	public BulkheadRateLimitMetrics bulkheadRateLimitMetrics(
-			BulkheadRateLimitRegistry registry,
-			@Lazy MeterRegistry meterRegistry) {
-		return new BulkheadRateLimitMetrics(registry, meterRegistry);
+	public BulkheadRateLimitManager bulkheadRateLimitManager(BulkheadRateLimitRegistry registry) {
+		return new BulkheadRateLimitManager(registry);
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
-	public BulkheadRateLimitManager bulkheadRateLimitManager(
-			BulkheadRateLimitRegistry registry, BulkheadRateLimitMetrics metrics) {
-		return new BulkheadRateLimitManager(registry, metrics);
+	public BulkheadRateLimitAspect bulkheadRateLimitAspect(BulkheadRateLimitManager manager) {
+		return new BulkheadRateLimitAspect(manager);
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
-	public BulkheadRateLimitAspect bulkheadRateLimitAspect(BulkheadRateLimitManager manager) {
-		return new BulkheadRateLimitAspect(manager);
+	public BulkheadRateLimitRefreshListener bulkheadRateLimitRefreshListener(BulkheadRateLimitRegistry registry,
+																			 Environment environment) {
+		return new BulkheadRateLimitRefreshListener(registry, environment);
+	}
+
+	/**
+	 * Shared store of the distributed rate limit: the application's DataSource if it has one,
+	 * otherwise an in-process store that only spans this instance
+	 */
+	@Configuration
+	@ConditionalOnProperty(value = "bulkhead-rate-limit.distributed-limiter", havingValue = "true")
+	static class DistributedConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public RateLimitStore bulkheadRateLimitStore(BulkheadRateLimitProperties properties,
+													 ObjectProvider<DataSource> dataSource) {
+			DataSource source = dataSource.getIfUnique();
+			if (source == null) {
+				log.warn("Distributed rate limiting needs a DataSource or a RateLimitStore bean: limits apply per instance");
+				return new InMemoryRateLimitStore();
+			}
+			JdbcRateLimitStore store = new JdbcRateLimitStore(source, properties.getDistributed().getTableName(),
+					properties.getDistributed().getQueryTimeout());
+			if (properties.getDistributed().isInitializeSchema()) {
+				store.initializeSchema();
+			}
+			return store;
+		}
+	}
+
+	/**
+	 * Optional Micrometer export of the policies' built-in stats
+	 */
+	@Configuration
+	@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+	@ConditionalOnProperty(value = "bulkhead-rate-limit.metrics-enabled", havingValue = "true", matchIfMissing = true)
+	static class MetricsConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public BulkheadRateLimitMetrics bulkheadRateLimitMetrics(
+				BulkheadRateLimitRegistry registry,
+				ObjectProvider<MeterRegistry> meterRegistry) {
+			return new BulkheadRateLimitMetrics(registry, meterRegistry.getIfAvailable());
+		}
+	}
+
+	/**
+	 * Actuator endpoint returning every policy's state in one response
+	 */
+	@Configuration
+	@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+	static class EndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint(endpoint = BulkheadRateLimitEndpoint.class)
+		public BulkheadRateLimitEndpoint bulkheadRateLimitEndpoint(BulkheadRateLimitRegistry registry) {
+			return new BulkheadRateLimitEndpoint(registry);
+		}
+	}
+
+	/**
+	 * Servlet filter mode, enforcing policies by URL pattern before dispatch
+	 */
+	@Configuration
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+	@ConditionalOnClass(name = "org.springframework.web.filter.OncePerRequestFilter")
+	@ConditionalOnProperty(value = "bulkhead-rate-limit.filter.enabled", havingValue = "true")
+	static class FilterConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean(name = "bulkheadRateLimitFilter")
+		public FilterRegistrationBean<BulkheadRateLimitFilter> bulkheadRateLimitFilter(
+				BulkheadRateLimitManager manager, BulkheadRateLimitProperties properties) {
+			FilterRegistrationBean<BulkheadRateLimitFilter> registration = new FilterRegistrationBean<>(
+					new BulkheadRateLimitFilter(manager, properties.getFilter().getMappings()));
+			registration.setOrder(properties.getFilter().getOrder());
+			return registration;
+		}
+	}
+
+	/**
+	 * Reactive filter mode, enforcing policies by URL pattern without blocking the event loop
+	 */
+	@Configuration
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+	@ConditionalOnClass(name = {"org.springframework.web.server.WebFilter", "reactor.core.publisher.Mono"})
+	@ConditionalOnProperty(value = "bulkhead-rate-limit.filter.enabled", havingValue = "true")
+	static class WebFilterConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public BulkheadRateLimitWebFilter bulkheadRateLimitWebFilter(
+				BulkheadRateLimitManager manager, BulkheadRateLimitProperties properties) {
+			return new BulkheadRateLimitWebFilter(manager, properties.getFilter().getMappings(),
+					properties.getFilter().getOrder());
+		}
 	}
 }
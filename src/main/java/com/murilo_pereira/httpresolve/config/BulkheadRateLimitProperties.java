@@ -2,11 +2,15 @@ package com.murilo_pereira.httpresolve.config;
 
 // BulkheadRateLimitProperties.java
 
+import com.murilo_pereira.httpresolve.annotation.Criticality;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Configuration properties for Bulkhead and Rate Limit settings
@@ -34,11 +38,21 @@ public class BulkheadRateLimitProperties {
 	 */
 	private boolean distributedLimiter = false;
 
+	/**
+	 * Shared store of the distributed rate limit
+	 */
+	private DistributedConfig distributed = new DistributedConfig();
+
 	/**
 	 * Whether to publish metrics to actuator
 	 */
 	private boolean metricsEnabled = true;
 
+	/**
+	 * Servlet filter enforcing policies by URL pattern, before dispatch
+	 */
+	private FilterConfig filter = new FilterConfig();
+
 	/**
 	 * Configuration for each policy
 	 */
@@ -58,6 +72,11 @@ public class BulkheadRateLimitProperties {
 		 */
 		private RateLimitConfig rateLimit = new RateLimitConfig();
 
+		/**
+		 * Circuit breaker configuration
+		 */
+		private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+
 		// Getters and setters
 		public boolean isEnabled() {
 			return enabled;
@@ -82,17 +101,75 @@ public class BulkheadRateLimitProperties {
 		public void setRateLimit(RateLimitConfig rateLimit) {
 			this.rateLimit = rateLimit;
 		}
+
+		public CircuitBreakerConfig getCircuitBreaker() {
+			return circuitBreaker;
+		}
+
+		public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+			this.circuitBreaker = circuitBreaker;
+		}
+
+		/**
+		 * Deep copy, so that changes to it do not reach this configuration
+		 */
+		public PolicyConfig copy() {
+			PolicyConfig copy = new PolicyConfig();
+			copy.enabled = enabled;
+			copy.bulkhead = bulkhead.copy();
+			copy.rateLimit = rateLimit.copy();
+			copy.circuitBreaker = circuitBreaker.copy();
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof PolicyConfig other)) {
+				return false;
+			}
+			return enabled == other.enabled
+					&& Objects.equals(bulkhead, other.bulkhead)
+					&& Objects.equals(rateLimit, other.rateLimit)
+					&& Objects.equals(circuitBreaker, other.circuitBreaker);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(enabled, bulkhead, rateLimit, circuitBreaker);
+		}
 	}
 
 	/**
 	 * Bulkhead configuration
 	 */
 	public static class BulkheadConfig {
+		/**
+		 * Bulkhead implementation (SEMAPHORE, ATOMIC, THREAD_POOL, ADAPTIVE, PRIORITY, FAIR_SHARE).
+		 * PRIORITY serves waiting calls by criticality and sheds the least critical first when the queue is full;
+		 * FAIR_SHARE serves waiting calls of each tenant in turn, in proportion to {@code tenantWeights}
+		 */
+		private String type = "SEMAPHORE";
+
 		/**
 		 * Maximum concurrent executions allowed
 		 */
 		private int maxConcurrentCalls = 10;
 
+		/**
+		 * Lowest concurrency limit an ADAPTIVE bulkhead may shrink to.
+		 * ADAPTIVE bulkheads move their limit between this value and maxConcurrentCalls
+		 */
+		private int minConcurrentCalls = 1;
+
+		/**
+		 * Maximum concurrent executions per concurrency key, on top of maxConcurrentCalls (0 = no cap).
+		 * A key only holds state while it has calls in flight
+		 */
+		private int maxConcurrentCallsPerKey = 0;
+
 		/**
 		 * Queue size when maxConcurrentCalls is reached
 		 * If queuing is enabled (maxQueueSize > 0), requests will wait;
@@ -105,7 +182,57 @@ public class BulkheadRateLimitProperties {
 		 */
 		private Duration queueTimeout = Duration.ofMillis(500);
 
+		/**
+		 * Order and time limit of queued requests (FIFO, CODEL, ADAPTIVE_LIFO).
+		 * CODEL drops every request that waited more than {@code codelTarget} once the queue has not been
+		 * empty for {@code codelInterval}, so no request waits longer than the later of the two, even alone
+		 * in the queue; {@code queueTimeout} still applies when shorter. ADAPTIVE_LIFO does the same and
+		 * serves the newest waiters first meanwhile
+		 */
+		private String queueDiscipline = "FIFO";
+
+		/**
+		 * Longest a request may wait once the queue is congested, including requests queued before (CODEL, ADAPTIVE_LIFO)
+		 */
+		private Duration codelTarget = Duration.ofMillis(5);
+
+		/**
+		 * Time the queue must stay non-empty before it counts as congested (CODEL, ADAPTIVE_LIFO).
+		 * A request waiting alone is in a queue that has not been empty since it arrived, so it waits
+		 * at most this long
+		 */
+		private Duration codelInterval = Duration.ofMillis(100);
+
+		/**
+		 * Threads running THREAD_POOL calls (PLATFORM, pooled; VIRTUAL, one per call).
+		 * VIRTUAL requires Java 21 and falls back to PLATFORM otherwise
+		 */
+		private String threadType = "PLATFORM";
+
+		/**
+		 * Maximum time a caller waits for a THREAD_POOL call, including its time in the queue
+		 */
+		private Duration callTimeout = Duration.ofSeconds(1);
+
+		/**
+		 * Share of each tenant in a FAIR_SHARE bulkhead, in permits per turn; unlisted tenants weigh 1
+		 */
+		private Map<String, Integer> tenantWeights = new HashMap<>();
+
+		/**
+		 * Maximum number of tenants whose call statistics are kept; the least recently seen is dropped first
+		 */
+		private int maxTenants = 100;
+
 		// Getters and setters
+		public String getType() {
+			return type;
+		}
+
+		public void setType(String type) {
+			this.type = type;
+		}
+
 		public int getMaxConcurrentCalls() {
 			return maxConcurrentCalls;
 		}
@@ -114,6 +241,22 @@ public class BulkheadRateLimitProperties {
 			this.maxConcurrentCalls = maxConcurrentCalls;
 		}
 
+		public int getMinConcurrentCalls() {
+			return minConcurrentCalls;
+		}
+
+		public void setMinConcurrentCalls(int minConcurrentCalls) {
+			this.minConcurrentCalls = minConcurrentCalls;
+		}
+
+		public int getMaxConcurrentCallsPerKey() {
+			return maxConcurrentCallsPerKey;
+		}
+
+		public void setMaxConcurrentCallsPerKey(int maxConcurrentCallsPerKey) {
+			this.maxConcurrentCallsPerKey = maxConcurrentCallsPerKey;
+		}
+
 		public int getMaxQueueSize() {
 			return maxQueueSize;
 		}
@@ -129,6 +272,111 @@ public class BulkheadRateLimitProperties {
 		public void setQueueTimeout(Duration queueTimeout) {
 			this.queueTimeout = queueTimeout;
 		}
+
+		public String getQueueDiscipline() {
+			return queueDiscipline;
+		}
+
+		public void setQueueDiscipline(String queueDiscipline) {
+			this.queueDiscipline = queueDiscipline;
+		}
+
+		public Duration getCodelTarget() {
+			return codelTarget;
+		}
+
+		public void setCodelTarget(Duration codelTarget) {
+			this.codelTarget = codelTarget;
+		}
+
+		public Duration getCodelInterval() {
+			return codelInterval;
+		}
+
+		public void setCodelInterval(Duration codelInterval) {
+			this.codelInterval = codelInterval;
+		}
+
+		public String getThreadType() {
+			return threadType;
+		}
+
+		public void setThreadType(String threadType) {
+			this.threadType = threadType;
+		}
+
+		public Duration getCallTimeout() {
+			return callTimeout;
+		}
+
+		public void setCallTimeout(Duration callTimeout) {
+			this.callTimeout = callTimeout;
+		}
+
+		public Map<String, Integer> getTenantWeights() {
+			return tenantWeights;
+		}
+
+		public void setTenantWeights(Map<String, Integer> tenantWeights) {
+			this.tenantWeights = tenantWeights;
+		}
+
+		public int getMaxTenants() {
+			return maxTenants;
+		}
+
+		public void setMaxTenants(int maxTenants) {
+			this.maxTenants = maxTenants;
+		}
+
+		/**
+		 * Deep copy, so that changes to it do not reach this configuration
+		 */
+		public BulkheadConfig copy() {
+			BulkheadConfig copy = new BulkheadConfig();
+			copy.type = type;
+			copy.maxConcurrentCalls = maxConcurrentCalls;
+			copy.minConcurrentCalls = minConcurrentCalls;
+			copy.maxConcurrentCallsPerKey = maxConcurrentCallsPerKey;
+			copy.maxQueueSize = maxQueueSize;
+			copy.queueTimeout = queueTimeout;
+			copy.queueDiscipline = queueDiscipline;
+			copy.codelTarget = codelTarget;
+			copy.codelInterval = codelInterval;
+			copy.threadType = threadType;
+			copy.callTimeout = callTimeout;
+			copy.tenantWeights = tenantWeights != null ? new HashMap<>(tenantWeights) : null;
+			copy.maxTenants = maxTenants;
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof BulkheadConfig other)) {
+				return false;
+			}
+			return Objects.equals(type, other.type)
+					&& maxConcurrentCalls == other.maxConcurrentCalls
+					&& minConcurrentCalls == other.minConcurrentCalls
+					&& maxConcurrentCallsPerKey == other.maxConcurrentCallsPerKey
+					&& maxQueueSize == other.maxQueueSize
+					&& Objects.equals(queueTimeout, other.queueTimeout)
+					&& Objects.equals(queueDiscipline, other.queueDiscipline)
+					&& Objects.equals(codelTarget, other.codelTarget)
+					&& Objects.equals(codelInterval, other.codelInterval)
+					&& Objects.equals(threadType, other.threadType)
+					&& Objects.equals(callTimeout, other.callTimeout)
+					&& Objects.equals(tenantWeights, other.tenantWeights)
+					&& maxTenants == other.maxTenants;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, maxConcurrentCalls, minConcurrentCalls, maxConcurrentCallsPerKey, maxQueueSize, queueTimeout, queueDiscipline, codelTarget, codelInterval, threadType, callTimeout, tenantWeights, maxTenants);
+		}
 	}
 
 	/**
@@ -136,7 +384,7 @@ public class BulkheadRateLimitProperties {
 	 */
 	public static class RateLimitConfig {
 		/**
-		 * Limit strategy (FIXED_WINDOW, SLIDING_WINDOW, TOKEN_BUCKET)
+		 * Limit strategy (FIXED_WINDOW, SLIDING_WINDOW, TOKEN_BUCKET, GCRA)
 		 */
 		private String strategy = "FIXED_WINDOW";
 
@@ -150,6 +398,45 @@ public class BulkheadRateLimitProperties {
 		 */
 		private Duration window = Duration.ofSeconds(1);
 
+		/**
+		 * Maximum number of tokens a TOKEN_BUCKET can hold, or requests GCRA admits ahead of schedule (burst size).
+		 * Tokens are refilled at {@code limit} per {@code window}; 0 uses {@code limit} as capacity
+		 */
+		private int burstCapacity = 0;
+
+		/**
+		 * Maximum number of keys holding their own limiter when a key expression is used
+		 */
+		private int maxKeys = 10000;
+
+		/**
+		 * Time after which an unused key's limiter is discarded
+		 */
+		private Duration keyIdleTimeout = Duration.ofMinutes(10);
+
+		/**
+		 * Where per-key state is stored (HEAP, OFF_HEAP).
+		 * OFF_HEAP keeps GCRA state for up to {@code maxKeys} keys in a fixed-size direct buffer
+		 */
+		private String keyStorage = "HEAP";
+
+		/**
+		 * What happens to a call over the limit (REJECT, DELAY).
+		 * DELAY reserves the next free slot and makes the call wait for it, up to {@code maxWait}
+		 */
+		private String mode = "REJECT";
+
+		/**
+		 * Longest a call waits for its slot in DELAY mode; calls that would wait longer are rejected
+		 */
+		private Duration maxWait = Duration.ofSeconds(1);
+
+		/**
+		 * Time over which a TOKEN_BUCKET or GCRA limiter ramps up to its rate after startup; 0 disables warm-up.
+		 * A warming limiter starts without burst credit and at a third of its rate
+		 */
+		private Duration warmUp = Duration.ZERO;
+
 		// Getters and setters
 		public String getStrategy() {
 			return strategy;
@@ -174,6 +461,431 @@ public class BulkheadRateLimitProperties {
 		public void setWindow(Duration window) {
 			this.window = window;
 		}
+
+		public int getBurstCapacity() {
+			return burstCapacity;
+		}
+
+		public void setBurstCapacity(int burstCapacity) {
+			this.burstCapacity = burstCapacity;
+		}
+
+		public int getMaxKeys() {
+			return maxKeys;
+		}
+
+		public void setMaxKeys(int maxKeys) {
+			this.maxKeys = maxKeys;
+		}
+
+		public Duration getKeyIdleTimeout() {
+			return keyIdleTimeout;
+		}
+
+		public void setKeyIdleTimeout(Duration keyIdleTimeout) {
+			this.keyIdleTimeout = keyIdleTimeout;
+		}
+
+		public String getKeyStorage() {
+			return keyStorage;
+		}
+
+		public void setKeyStorage(String keyStorage) {
+			this.keyStorage = keyStorage;
+		}
+
+		public String getMode() {
+			return mode;
+		}
+
+		public void setMode(String mode) {
+			this.mode = mode;
+		}
+
+		public Duration getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		public Duration getWarmUp() {
+			return warmUp;
+		}
+
+		public void setWarmUp(Duration warmUp) {
+			this.warmUp = warmUp;
+		}
+
+		/**
+		 * Deep copy, so that changes to it do not reach this configuration
+		 */
+		public RateLimitConfig copy() {
+			RateLimitConfig copy = new RateLimitConfig();
+			copy.strategy = strategy;
+			copy.limit = limit;
+			copy.window = window;
+			copy.burstCapacity = burstCapacity;
+			copy.maxKeys = maxKeys;
+			copy.keyIdleTimeout = keyIdleTimeout;
+			copy.keyStorage = keyStorage;
+			copy.mode = mode;
+			copy.maxWait = maxWait;
+			copy.warmUp = warmUp;
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof RateLimitConfig other)) {
+				return false;
+			}
+			return Objects.equals(strategy, other.strategy)
+					&& limit == other.limit
+					&& Objects.equals(window, other.window)
+					&& burstCapacity == other.burstCapacity
+					&& maxKeys == other.maxKeys
+					&& Objects.equals(keyIdleTimeout, other.keyIdleTimeout)
+					&& Objects.equals(keyStorage, other.keyStorage)
+					&& Objects.equals(mode, other.mode)
+					&& Objects.equals(maxWait, other.maxWait)
+					&& Objects.equals(warmUp, other.warmUp);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(strategy, limit, window, burstCapacity, maxKeys, keyIdleTimeout, keyStorage, mode, maxWait, warmUp);
+		}
+	}
+
+	/**
+	 * Circuit breaker configuration
+	 */
+	public static class CircuitBreakerConfig {
+		/**
+		 * Whether calls go through a circuit breaker, rejected right away while it is open
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Percentage of failed calls in the window opening the circuit
+		 */
+		private int failureRateThreshold = 50;
+
+		/**
+		 * Percentage of slow calls in the window opening the circuit
+		 */
+		private int slowCallRateThreshold = 100;
+
+		/**
+		 * Duration from which a call counts as slow
+		 */
+		private Duration slowCallDuration = Duration.ofSeconds(2);
+
+		/**
+		 * Number of most recent calls the rates are computed over
+		 */
+		private int slidingWindowSize = 100;
+
+		/**
+		 * Number of calls the window must hold before the rates are evaluated
+		 */
+		private int minimumNumberOfCalls = 20;
+
+		/**
+		 * Time the circuit stays open before letting trial calls through
+		 */
+		private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+		/**
+		 * Number of trial calls deciding whether a half-open circuit closes or opens again
+		 */
+		private int permittedCallsInHalfOpenState = 5;
+
+		/**
+		 * Exceptions counting neither as failures nor as successes, such as client errors.
+		 * Rejections by a policy ({@code BulkheadRateLimitException}) are always ignored
+		 */
+		private List<Class<? extends Throwable>> ignoreExceptions = new ArrayList<>();
+
+		// Getters and setters
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getFailureRateThreshold() {
+			return failureRateThreshold;
+		}
+
+		public void setFailureRateThreshold(int failureRateThreshold) {
+			this.failureRateThreshold = failureRateThreshold;
+		}
+
+		public int getSlowCallRateThreshold() {
+			return slowCallRateThreshold;
+		}
+
+		public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+			this.slowCallRateThreshold = slowCallRateThreshold;
+		}
+
+		public Duration getSlowCallDuration() {
+			return slowCallDuration;
+		}
+
+		public void setSlowCallDuration(Duration slowCallDuration) {
+			this.slowCallDuration = slowCallDuration;
+		}
+
+		public int getSlidingWindowSize() {
+			return slidingWindowSize;
+		}
+
+		public void setSlidingWindowSize(int slidingWindowSize) {
+			this.slidingWindowSize = slidingWindowSize;
+		}
+
+		public int getMinimumNumberOfCalls() {
+			return minimumNumberOfCalls;
+		}
+
+		public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+			this.minimumNumberOfCalls = minimumNumberOfCalls;
+		}
+
+		public Duration getWaitDurationInOpenState() {
+			return waitDurationInOpenState;
+		}
+
+		public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+			this.waitDurationInOpenState = waitDurationInOpenState;
+		}
+
+		public int getPermittedCallsInHalfOpenState() {
+			return permittedCallsInHalfOpenState;
+		}
+
+		public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+			this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+		}
+
+		public List<Class<? extends Throwable>> getIgnoreExceptions() {
+			return ignoreExceptions;
+		}
+
+		public void setIgnoreExceptions(List<Class<? extends Throwable>> ignoreExceptions) {
+			this.ignoreExceptions = ignoreExceptions;
+		}
+
+		/**
+		 * Deep copy, so that changes to it do not reach this configuration
+		 */
+		public CircuitBreakerConfig copy() {
+			CircuitBreakerConfig copy = new CircuitBreakerConfig();
+			copy.enabled = enabled;
+			copy.failureRateThreshold = failureRateThreshold;
+			copy.slowCallRateThreshold = slowCallRateThreshold;
+			copy.slowCallDuration = slowCallDuration;
+			copy.slidingWindowSize = slidingWindowSize;
+			copy.minimumNumberOfCalls = minimumNumberOfCalls;
+			copy.waitDurationInOpenState = waitDurationInOpenState;
+			copy.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+			copy.ignoreExceptions = new ArrayList<>(ignoreExceptions);
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof CircuitBreakerConfig other)) {
+				return false;
+			}
+			return enabled == other.enabled
+					&& failureRateThreshold == other.failureRateThreshold
+					&& slowCallRateThreshold == other.slowCallRateThreshold
+					&& Objects.equals(slowCallDuration, other.slowCallDuration)
+					&& slidingWindowSize == other.slidingWindowSize
+					&& minimumNumberOfCalls == other.minimumNumberOfCalls
+					&& Objects.equals(waitDurationInOpenState, other.waitDurationInOpenState)
+					&& permittedCallsInHalfOpenState == other.permittedCallsInHalfOpenState
+					&& Objects.equals(ignoreExceptions, other.ignoreExceptions);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(enabled, failureRateThreshold, slowCallRateThreshold, slowCallDuration, slidingWindowSize, minimumNumberOfCalls, waitDurationInOpenState, permittedCallsInHalfOpenState, ignoreExceptions);
+		}
+	}
+
+	/**
+	 * Shared store configuration, used when {@code distributed-limiter} is enabled
+	 */
+	public static class DistributedConfig {
+		/**
+		 * Table holding the budget used per policy and window (JDBC store)
+		 */
+		private String tableName = "bulkhead_rate_limit_budget";
+
+		/**
+		 * Whether to create the table on startup if it does not exist (JDBC store)
+		 */
+		private boolean initializeSchema = false;
+
+		/**
+		 * Longest a lease from the store may take before the store is deemed failed (JDBC store)
+		 */
+		private Duration queryTimeout = Duration.ofSeconds(1);
+
+		// Getters and setters
+		public String getTableName() {
+			return tableName;
+		}
+
+		public void setTableName(String tableName) {
+			this.tableName = tableName;
+		}
+
+		public boolean isInitializeSchema() {
+			return initializeSchema;
+		}
+
+		public void setInitializeSchema(boolean initializeSchema) {
+			this.initializeSchema = initializeSchema;
+		}
+
+		public Duration getQueryTimeout() {
+			return queryTimeout;
+		}
+
+		public void setQueryTimeout(Duration queryTimeout) {
+			this.queryTimeout = queryTimeout;
+		}
+	}
+
+	/**
+	 * Servlet filter configuration
+	 */
+	public static class FilterConfig {
+		/**
+		 * Whether to register the filter (default: false)
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Filter order; lower runs first (default: -200, ahead of Spring Security)
+		 */
+		private int order = -200;
+
+		/**
+		 * URL mappings, the most specific pattern winning
+		 */
+		private List<FilterMapping> mappings = new ArrayList<>();
+
+		// Getters and setters
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getOrder() {
+			return order;
+		}
+
+		public void setOrder(int order) {
+			this.order = order;
+		}
+
+		public List<FilterMapping> getMappings() {
+			return mappings;
+		}
+
+		public void setMappings(List<FilterMapping> mappings) {
+			this.mappings = mappings;
+		}
+	}
+
+	/**
+	 * Maps a URL pattern and HTTP methods to a policy
+	 */
+	public static class FilterMapping {
+		/**
+		 * Path pattern: literal segments, {@code *} or {@code {name}} for one segment, {@code **} for any number
+		 */
+		private String pattern;
+
+		/**
+		 * HTTP methods matched (default: empty, matching all)
+		 */
+		private List<String> methods = new ArrayList<>();
+
+		/**
+		 * Name of the policy to apply
+		 */
+		private String policy;
+
+		/**
+		 * Whether to fallback to the default policy if the named one is not found
+		 */
+		private boolean fallbackToDefault = false;
+
+		/**
+		 * Criticality of the matched requests when the bulkhead is saturated
+		 */
+		private Criticality criticality = Criticality.CRITICAL;
+
+		// Getters and setters
+		public String getPattern() {
+			return pattern;
+		}
+
+		public void setPattern(String pattern) {
+			this.pattern = pattern;
+		}
+
+		public List<String> getMethods() {
+			return methods;
+		}
+
+		public void setMethods(List<String> methods) {
+			this.methods = methods;
+		}
+
+		public String getPolicy() {
+			return policy;
+		}
+
+		public void setPolicy(String policy) {
+			this.policy = policy;
+		}
+
+		public boolean isFallbackToDefault() {
+			return fallbackToDefault;
+		}
+
+		public void setFallbackToDefault(boolean fallbackToDefault) {
+			this.fallbackToDefault = fallbackToDefault;
+		}
+
+		public Criticality getCriticality() {
+			return criticality;
+		}
+
+		public void setCriticality(Criticality criticality) {
+			this.criticality = criticality;
+		}
 	}
 
 	// Getters and setters
@@ -209,6 +921,14 @@ public class BulkheadRateLimitProperties {
 		this.distributedLimiter = distributedLimiter;
 	}
 
+	public DistributedConfig getDistributed() {
+		return distributed;
+	}
+
+	public void setDistributed(DistributedConfig distributed) {
+		this.distributed = distributed;
+	}
+
 	public boolean isMetricsEnabled() {
 		return metricsEnabled;
 	}
@@ -216,5 +936,13 @@ public class BulkheadRateLimitProperties {
 	public void setMetricsEnabled(boolean metricsEnabled) {
 		this.metricsEnabled = metricsEnabled;
 	}
+
+	public FilterConfig getFilter() {
+		return filter;
+	}
+
+	public void setFilter(FilterConfig filter) {
+		this.filter = filter;
+	}
 }
 
@@ -0,0 +1,337 @@
+package com.murilo_pereira.httpresolve.core;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.metrics.PolicyStats;
+import com.murilo_pereira.httpresolve.strategy.BulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.FairShareBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.QueueDiscipline;
+
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking front of a policy's bulkhead for asynchronous calls
+ * <p>
+ * Permits are taken with {@link BulkheadStrategy#tryAcquirePermissionNow(int)}, so no thread ever
+ * waits. When the bulkhead is full, callers are parked as {@link AsyncPermit}s in a bounded queue
+ * (the policy's {@code maxQueueSize}) and granted in order as permits are released, or rejected
+ * once {@code queueTimeout} elapses. A heavy waiter at the head of the queue is served before
+ * lighter ones behind it, so weighted calls are not starved.
+ * <p>
+ * Waiters are kept in one queue per priority and the highest non-empty one is served first.
+ * When the queue is full, a call takes the slot of the newest waiter of the lowest priority below its own.
+ * The policy's {@link QueueDiscipline} bounds the wait of calls entering a congested queue and, under
+ * ADAPTIVE_LIFO, serves the newest waiter of each priority first meanwhile.
+ * <p>
+ * In front of a {@link FairShareBulkheadStrategy}, waiters are kept in one queue per tenant instead and
+ * served in deficit round robin order with the tenants' weights, as the strategy serves blocking callers.
+ * A full queue then sheds the newest waiter of the tenant with the longest queue, if longer than the caller's.
+ */
+final class AsyncBulkhead {
+	private final BulkheadStrategy bulkhead;
+	private final PolicyStats stats;
+	private volatile int maxQueueSize;
+	private volatile long queueTimeoutNanos;
+	private final Deque<AsyncPermit>[] waiters;
+	private final AtomicInteger waiting = new AtomicInteger(0);
+	private final AtomicInteger signals = new AtomicInteger(0);
+	private final QueueDiscipline discipline;
+	private final FairShareBulkheadStrategy fairShare;
+	private final ConcurrentHashMap<String, TenantWaiters> tenantWaiters = new ConcurrentHashMap<>();
+	private final Queue<TenantWaiters> round = new ConcurrentLinkedQueue<>();
+
+	private static final class TenantWaiters {
+		final String tenant;
+		final Deque<AsyncPermit> waiters = new ConcurrentLinkedDeque<>();
+		// Only touched by the draining thread
+		long deficit;
+
+		TenantWaiters(String tenant, long deficit) {
+			this.tenant = tenant;
+			this.deficit = deficit;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	AsyncBulkhead(BulkheadStrategy bulkhead, BulkheadRateLimitProperties.BulkheadConfig config, PolicyStats stats) {
+		this.bulkhead = bulkhead;
+		this.stats = stats;
+		this.waiters = new Deque[BulkheadStrategy.PRIORITY_LEVELS];
+		for (int i = 0; i < waiters.length; i++) {
+			waiters[i] = new ConcurrentLinkedDeque<>();
+		}
+		this.discipline = new QueueDiscipline(config);
+		this.fairShare = bulkhead instanceof FairShareBulkheadStrategy fair ? fair : null;
+		reconfigure(config);
+	}
+
+	/**
+	 * Applies new queue settings; calls already parked keep their deadline
+	 */
+	void reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.maxQueueSize = config == null ? 0 : Math.max(0, config.getMaxQueueSize());
+		this.queueTimeoutNanos = config == null ? 0 : config.getQueueTimeout().toNanos();
+		discipline.reconfigure(config);
+	}
+
+	BulkheadStrategy getBulkhead() {
+		return bulkhead;
+	}
+
+	/**
+	 * Acquires permits for a call, or queues for them
+	 * @param permits the weight of the call
+	 * @param priority the ordinal of the call's criticality
+	 * @param tenant the tenant the call is made for, used by FAIR_SHARE; or null
+	 * @param keyedBulkhead the cap the call already took permits of its concurrency key from, released along
+	 * with the returned permit; or null if it took none
+	 * @param concurrencyKey the call's concurrency key, if {@code keyedBulkhead} is not null
+	 * @return a permit, either granted or waiting to be; null if the bulkhead and its queue are full
+	 */
+	AsyncPermit acquire(int permits, int priority, String tenant, KeyedBulkheadStrategy keyedBulkhead,
+						String concurrencyKey) {
+		if (waiting.get() == 0 && bulkhead.tryAcquirePermissionNow(permits)) {
+			return AsyncPermit.granted(this, permits, keyedBulkhead, concurrencyKey);
+		}
+
+		int tier = Math.max(0, Math.min(waiters.length - 1, priority));
+		String name = tenant != null ? tenant : "";
+		int queuedBefore = reserveSlot(tier, name);
+		if (queuedBefore < 0) {
+			return null;
+		}
+		AsyncPermit permit = AsyncPermit.waiting(this, permits, tier, name, keyedBulkhead, concurrencyKey);
+		if (fairShare != null) {
+			tenantWaiters.compute(name, (key, queue) -> {
+				if (queue == null) {
+					queue = new TenantWaiters(key, fairShare.getWeight(key));
+					round.add(queue);
+				}
+				queue.waiters.add(permit);
+				return queue;
+			});
+		} else {
+			waiters[tier].add(permit);
+		}
+		permit.ready()
+				.orTimeout(discipline.enter(queuedBefore, queueTimeoutNanos), TimeUnit.NANOSECONDS)
+				.whenComplete((ignored, error) -> {
+					if (error != null) {
+						permit.abandon();
+					}
+				});
+		// A permit may have been released before the waiter was queued
+		signal();
+		return permit;
+	}
+
+	/**
+	 * Releases the permits of a completed asynchronous call, recording how long it ran
+	 */
+	void complete(int permits, long elapsedNanos) {
+		stats.recordExecutionTime(elapsedNanos, System.nanoTime());
+		release(permits, elapsedNanos);
+	}
+
+	/**
+	 * Releases the permits of a call, handing them over to the next waiters if any
+	 */
+	void release(int permits, long elapsedNanos) {
+		bulkhead.releasePermission(permits, elapsedNanos);
+		if (waiting.get() > 0) {
+			signal();
+		}
+	}
+
+	/**
+	 * Releases permits that no call ran with
+	 */
+	void releaseUnused(int permits) {
+		bulkhead.releaseUnusedPermission(permits);
+		if (waiting.get() > 0) {
+			signal();
+		}
+	}
+
+	/**
+	 * Removes a permit that gave up waiting
+	 */
+	void dequeue(AsyncPermit permit) {
+		if (fairShare != null ? dequeueTenant(permit) : waiters[permit.getPriority()].remove(permit)) {
+			discipline.leave(waiting.decrementAndGet());
+		}
+	}
+
+	private boolean dequeueTenant(AsyncPermit permit) {
+		TenantWaiters queue = tenantWaiters.get(permit.getTenant());
+		if (queue == null || !queue.waiters.remove(permit)) {
+			return false;
+		}
+		// Drop the tenant's queue and credit with its last waiter, unless another one arrived meanwhile
+		if (tenantWaiters.computeIfPresent(queue.tenant,
+				(key, current) -> current == queue && current.waiters.isEmpty() ? null : current) == null) {
+			round.remove(queue);
+		}
+		return true;
+	}
+
+	int getQueueSize() {
+		return waiting.get();
+	}
+
+	/**
+	 * Reserves a queue slot, taking it from a waiter of lower priority, or under FAIR_SHARE of a tenant
+	 * with a longer queue, when the queue is full
+	 * @return the number of calls already waiting, or -1 if no slot is left
+	 */
+	private int reserveSlot(int tier, String tenant) {
+		while (true) {
+			int current = waiting.get();
+			if (current >= maxQueueSize) {
+				return (fairShare != null ? shedLongerThan(tenant) : shedBelow(tier)) ? current : -1;
+			}
+			if (waiting.compareAndSet(current, current + 1)) {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * Rejects the newest waiter of the lowest priority below the given one, keeping its queue slot
+	 * @return false if no waiter has a lower priority
+	 */
+	private boolean shedBelow(int tier) {
+		for (int lower = 0; lower < tier; lower++) {
+			AsyncPermit victim;
+			while ((victim = waiters[lower].peekLast()) != null) {
+				// Whoever removes a waiter owns its slot
+				if (waiters[lower].removeLastOccurrence(victim)) {
+					victim.shed();
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Rejects the newest waiter of the tenant with the longest queue, if longer than the given tenant's
+	 * plus the caller about to join it, keeping its queue slot
+	 * @return false if no tenant waits in a longer queue
+	 */
+	private boolean shedLongerThan(String tenant) {
+		TenantWaiters own = tenantWaiters.get(tenant);
+		int length = own != null ? own.waiters.size() : 0;
+		TenantWaiters longest = null;
+		int longestLength = 0;
+		for (TenantWaiters queue : tenantWaiters.values()) {
+			int size = queue.waiters.size();
+			if (size > longestLength) {
+				longest = queue;
+				longestLength = size;
+			}
+		}
+		if (longest == null || longestLength <= length + 1) {
+			return false;
+		}
+		AsyncPermit victim;
+		while ((victim = longest.waiters.peekLast()) != null) {
+			if (longest.waiters.removeLastOccurrence(victim)) {
+				victim.shed();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Grants permits to the waiters at the head of the highest queues while the bulkhead has room for them.
+	 * A single thread drains at a time; a signal arriving meanwhile makes it drain once more.
+	 */
+	private void signal() {
+		if (signals.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			if (fairShare != null) {
+				drainTenants();
+			} else {
+				drain();
+			}
+			missed = signals.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	private void drain() {
+		int tier = waiters.length - 1;
+		while (tier >= 0) {
+			boolean lifo = discipline.isLifo();
+			AsyncPermit head = lifo ? waiters[tier].peekLast() : waiters[tier].peekFirst();
+			if (head == null) {
+				tier--;
+				continue;
+			}
+			if (!bulkhead.tryAcquirePermissionNow(head.getPermits())) {
+				return;
+			}
+			if (!(lifo ? waiters[tier].removeLastOccurrence(head) : waiters[tier].removeFirstOccurrence(head))) {
+				// Gave up waiting meanwhile
+				bulkhead.releaseUnusedPermission(head.getPermits());
+				continue;
+			}
+			discipline.leave(waiting.decrementAndGet());
+			if (!head.grant()) {
+				bulkhead.releaseUnusedPermission(head.getPermits());
+			}
+		}
+	}
+
+	/**
+	 * Grants permits in deficit round robin order: the tenant at the front of the round is served while its
+	 * credit covers its next waiter, then goes to the back with its weight added to its credit.
+	 */
+	private void drainTenants() {
+		TenantWaiters queue;
+		while ((queue = round.peek()) != null) {
+			boolean lifo = discipline.isLifo();
+			AsyncPermit head = lifo ? queue.waiters.peekLast() : queue.waiters.peekFirst();
+			if (head == null) {
+				// Its waiters gave up meanwhile; kept only if one arrived since
+				TenantWaiters empty = queue;
+				tenantWaiters.computeIfPresent(empty.tenant,
+						(key, current) -> current == empty && current.waiters.isEmpty() ? null : current);
+				if (round.remove(empty) && tenantWaiters.get(empty.tenant) == empty) {
+					round.add(empty);
+				}
+				continue;
+			}
+			if (queue.deficit < head.getPermits()) {
+				if (round.remove(queue)) {
+					queue.deficit += fairShare.getWeight(queue.tenant);
+					round.add(queue);
+				}
+				continue;
+			}
+			if (!bulkhead.tryAcquirePermissionNow(head.getPermits())) {
+				return;
+			}
+			if (!(lifo ? queue.waiters.removeLastOccurrence(head) : queue.waiters.removeFirstOccurrence(head))) {
+				// Gave up waiting meanwhile
+				bulkhead.releaseUnusedPermission(head.getPermits());
+				continue;
+			}
+			queue.deficit -= head.getPermits();
+			discipline.leave(waiting.decrementAndGet());
+			if (!head.grant()) {
+				bulkhead.releaseUnusedPermission(head.getPermits());
+			}
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.murilo_pereira.httpresolve.core;
+
+import com.murilo_pereira.httpresolve.exception.BulkheadException;
+import com.murilo_pereira.httpresolve.strategy.KeyedBulkheadStrategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bulkhead permit held by an asynchronous call, from acquisition until its terminal signal
+ * <p>
+ * State moves once from WAITING to GRANTED (or straight to DONE when abandoned while queued), and
+ * once from GRANTED to DONE, so the permit is released exactly once whichever of completion,
+ * cancellation or queue timeout happens first. The concurrency key's permits the call holds, if any,
+ * are released on reaching DONE, whether the call ran or not.
+ */
+final class AsyncPermit {
+	private static final int WAITING = 0;
+	private static final int GRANTED = 1;
+	private static final int DONE = 2;
+
+	// Shared by every shed permit, so it has neither stack trace nor suppressed exceptions to grow
+	private static final BulkheadException SHED =
+			BulkheadException.stackless("Shed from the full queue for a call of higher priority or of a less busy tenant");
+
+	private final AsyncBulkhead owner;
+	private final int permits;
+	private final int priority;
+	private final String tenant;
+	private final KeyedBulkheadStrategy keyedBulkhead;
+	private final String concurrencyKey;
+	private final CompletableFuture<Void> ready;
+	private final AtomicInteger state;
+	private volatile long startNanos;
+
+	private AsyncPermit(AsyncBulkhead owner, int permits, int priority, String tenant,
+						KeyedBulkheadStrategy keyedBulkhead, String concurrencyKey, CompletableFuture<Void> ready, int state) {
+		this.owner = owner;
+		this.permits = permits;
+		this.priority = priority;
+		this.tenant = tenant;
+		this.keyedBulkhead = keyedBulkhead;
+		this.concurrencyKey = concurrencyKey;
+		this.ready = ready;
+		this.state = new AtomicInteger(state);
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * @param keyedBulkhead the cap the call took permits of its concurrency key from, or null if it took none
+	 */
+	static AsyncPermit granted(AsyncBulkhead owner, int permits, KeyedBulkheadStrategy keyedBulkhead,
+							   String concurrencyKey) {
+		return new AsyncPermit(owner, permits, 0, null, keyedBulkhead, concurrencyKey,
+				CompletableFuture.completedFuture(null), GRANTED);
+	}
+
+	/**
+	 * @param keyedBulkhead the cap the call took permits of its concurrency key from, or null if it took none
+	 */
+	static AsyncPermit waiting(AsyncBulkhead owner, int permits, int priority, String tenant,
+							   KeyedBulkheadStrategy keyedBulkhead, String concurrencyKey) {
+		return new AsyncPermit(owner, permits, priority, tenant, keyedBulkhead, concurrencyKey,
+				new CompletableFuture<>(), WAITING);
+	}
+
+	/**
+	 * Number of bulkhead permits held, the weight of the call
+	 */
+	int getPermits() {
+		return permits;
+	}
+
+	/**
+	 * Queue the permit waits in, the ordinal of the call's criticality
+	 */
+	int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Tenant queue the permit waits in under FAIR_SHARE
+	 */
+	String getTenant() {
+		return tenant;
+	}
+
+	/**
+	 * Completes when the permit is granted, or exceptionally if the wait timed out
+	 */
+	CompletableFuture<Void> ready() {
+		return ready;
+	}
+
+	boolean isGranted() {
+		return state.get() == GRANTED;
+	}
+
+	/**
+	 * Hands a freshly acquired bulkhead permit to this waiter
+	 * @return false if the waiter already gave up, the caller then keeps the permit
+	 */
+	boolean grant() {
+		if (!state.compareAndSet(WAITING, GRANTED)) {
+			return false;
+		}
+		startNanos = System.nanoTime();
+		if (!ready.complete(null) && state.compareAndSet(GRANTED, DONE)) {
+			// Timed out at the same time: nobody will use the permit
+			owner.releaseUnused(permits);
+			releaseKey();
+		}
+		return true;
+	}
+
+	/**
+	 * Releases the permit once the call reached its terminal signal
+	 * @return how long the call held the permit, or -1 if it was already released
+	 */
+	long release() {
+		if (state.compareAndSet(GRANTED, DONE)) {
+			long elapsed = System.nanoTime() - startNanos;
+			owner.complete(permits, elapsed);
+			releaseKey();
+			return elapsed;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gives up the permit: leaves the queue if still waiting, releases it otherwise
+	 */
+	void abandon() {
+		if (state.compareAndSet(WAITING, DONE)) {
+			owner.dequeue(this);
+			releaseKey();
+			ready.cancel(false);
+		} else {
+			release();
+		}
+	}
+
+	/**
+	 * Rejects a waiter already removed from the queue, whose slot went to a call of higher priority
+	 */
+	void shed() {
+		if (state.compareAndSet(WAITING, DONE)) {
+			releaseKey();
+			ready.completeExceptionally(SHED);
+		}
+	}
+
+	/**
+	 * Leaves the queue if still waiting, leaving a granted permit to its call
+	 */
+	void cancelWaiting() {
+		if (state.compareAndSet(WAITING, DONE)) {
+			owner.dequeue(this);
+			releaseKey();
+			ready.cancel(false);
+		}
+	}
+
+	private void releaseKey() {
+		if (keyedBulkhead != null) {
+			keyedBulkhead.releasePermission(concurrencyKey, permits);
+		}
+	}
+}
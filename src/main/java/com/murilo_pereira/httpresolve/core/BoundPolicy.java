@@ -0,0 +1,59 @@
+package com.murilo_pereira.httpresolve.core;
+
+import com.murilo_pereira.httpresolve.annotation.Criticality;
+import com.murilo_pereira.httpresolve.metrics.PolicyStats;
+
+/**
+ * A policy resolved once: its limiter together with the statistics its calls are recorded to,
+ * and the criticality of the calls made through it
+ */
+public final class BoundPolicy {
+	private final String name;
+	private final LimiterContext limiter;
+	private final PolicyStats stats;
+	private final Criticality criticality;
+
+	public BoundPolicy(String name, LimiterContext limiter) {
+		this(name, limiter, Criticality.CRITICAL);
+	}
+
+	private BoundPolicy(String name, LimiterContext limiter, Criticality criticality) {
+		this.name = name;
+		this.limiter = limiter;
+		this.stats = limiter.getStats();
+		this.criticality = criticality;
+	}
+
+	/**
+	 * The same policy, for calls of another criticality
+	 */
+	public BoundPolicy withCriticality(Criticality criticality) {
+		return criticality == this.criticality ? this : new BoundPolicy(name, limiter, criticality);
+	}
+
+	/**
+	 * Policy name as requested, which may differ from the limiter's when falling back to the default
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public LimiterContext getLimiter() {
+		return limiter;
+	}
+
+	public PolicyStats getStats() {
+		return stats;
+	}
+
+	public Criticality getCriticality() {
+		return criticality;
+	}
+
+	/**
+	 * Bulkhead priority of the calls, the ordinal of their criticality
+	 */
+	int getPriority() {
+		return criticality.ordinal();
+	}
+}
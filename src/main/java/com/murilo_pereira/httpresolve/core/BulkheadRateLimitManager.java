@@ -2,13 +2,28 @@ package com.murilo_pereira.httpresolve.core;
 
 import com.murilo_pereira.httpresolve.exception.BulkheadException;
 import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
-import com.murilo_pereira.httpresolve.exception.RateLimitException;
-import com.murilo_pereira.httpresolve.metrics.BulkheadRateLimitMetrics;
+import com.murilo_pereira.httpresolve.metrics.PolicyStats;
+import com.murilo_pereira.httpresolve.metrics.TenantStats;
+import com.murilo_pereira.httpresolve.strategy.BulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.CircuitBreakerStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.ThreadPoolBulkheadStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Main manager for executing methods with bulkhead and rate limit
  */
@@ -16,13 +31,17 @@ import org.springframework.stereotype.Component;
 public class BulkheadRateLimitManager {
 	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitManager.class);
 
+	private static final Invocation<CheckedSupplier<?>, ?> SUPPLIER = CheckedSupplier::get;
+	private static final Invocation<CheckedRunnable, Object> RUNNABLE = runnable -> {
+		runnable.run();
+		return null;
+	};
+
 	private final BulkheadRateLimitRegistry registry;
-	private final BulkheadRateLimitMetrics metrics;
 
 	@Autowired
-	public BulkheadRateLimitManager(BulkheadRateLimitRegistry registry, BulkheadRateLimitMetrics metrics) {
+	public BulkheadRateLimitManager(BulkheadRateLimitRegistry registry) {
 		this.registry = registry;
-		this.metrics = metrics;
 	}
 
 	/**
@@ -36,44 +55,627 @@ public class BulkheadRateLimitManager {
 	 */
 	public <T> T execute(String policyName, boolean fallbackToDefault, CheckedSupplier<T> executable)
 			throws BulkheadRateLimitException, Exception {
+		return execute(policyName, fallbackToDefault, null, executable);
+	}
+
+	/**
+	 * Executes a block of code with bulkhead and rate limiting applied, rate limiting per caller key
+	 * @param policyName the policy name to use
+	 * @param fallbackToDefault whether to use default policy if named policy not found
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param executable the code to execute
+	 * @return the result of the execution
+	 * @throws BulkheadRateLimitException if limits are exceeded
+	 * @throws Exception if the executable throws an exception
+	 */
+	public <T> T execute(String policyName, boolean fallbackToDefault, String key, CheckedSupplier<T> executable)
+			throws BulkheadRateLimitException, Exception {
+		return execute(bind(policyName, fallbackToDefault), key, executable);
+	}
+
+	/**
+	 * Registry the policies are resolved from
+	 */
+	public BulkheadRateLimitRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Resolves a policy once, so that repeated executions skip the registry lookup
+	 * @param policyName the policy name to use
+	 * @param fallbackToDefault whether to use default policy if named policy not found
+	 * @return the bound policy
+	 * @throws IllegalArgumentException if no policy is found
+	 */
+	public BoundPolicy bind(String policyName, boolean fallbackToDefault) {
 		// Get limiter (by name or default)
 		LimiterContext limiter = fallbackToDefault
 				? registry.getLimiterOrDefault(policyName)
 				: registry.getLimiter(policyName);
+		return new BoundPolicy(policyName, limiter);
+	}
 
-		boolean bulkheadAcquired = false;
+	/**
+	 * Executes a block of code with the bulkhead and rate limit of a bound policy
+	 * @param policy the policy, as returned by {@link #bind(String, boolean)}
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param executable the code to execute
+	 * @return the result of the execution
+	 * @throws BulkheadRateLimitException if limits are exceeded
+	 * @throws Exception if the executable throws an exception
+	 */
+	public <T> T execute(BoundPolicy policy, String key, CheckedSupplier<T> executable)
+			throws BulkheadRateLimitException, Exception {
+		return execute(policy, key, 1, executable);
+	}
 
+	/**
+	 * Executes a block of code weighing {@code permits} calls, such as a batch or a bulk export.
+	 * All the permits are taken at once from the rate limit and the bulkhead, or none is.
+	 * @param policy the policy, as returned by {@link #bind(String, boolean)}
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param permits the cost of the call, at least 1
+	 * @param executable the code to execute
+	 * @return the result of the execution
+	 * @throws BulkheadRateLimitException if limits are exceeded
+	 * @throws Exception if the executable throws an exception
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T execute(BoundPolicy policy, String key, int permits, CheckedSupplier<T> executable)
+			throws BulkheadRateLimitException, Exception {
 		try {
-			// Apply rate limit
+			return execute(policy, key, permits, executable,
+					(Invocation<CheckedSupplier<T>, T>) (Invocation<?, ?>) SUPPLIER);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new UndeclaredThrowableException(e);
+		}
+	}
+
+	/**
+	 * Executes an invocation with the bulkhead and rate limit of a bound policy.
+	 * The argument is handed to the invocation as is, so a non-capturing invocation
+	 * (such as a static method reference) keeps the admitted path free of allocations.
+	 * @param policy the policy, as returned by {@link #bind(String, boolean)}
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param argument the argument passed to the invocation
+	 * @param invocation the code to execute
+	 * @return the result of the execution
+	 * @throws BulkheadRateLimitException if limits are exceeded
+	 * @throws Throwable if the invocation throws
+	 */
+	public <A, T> T execute(BoundPolicy policy, String key, A argument, Invocation<A, T> invocation) throws Throwable {
+		return execute(policy, key, 1, argument, invocation);
+	}
+
+	/**
+	 * Executes an invocation weighing {@code permits} calls with the bulkhead and rate limit of a bound policy.
+	 * All the permits are taken at once, or none is; the bulkhead of a THREAD_POOL policy counts calls, not permits.
+	 * @param policy the policy, as returned by {@link #bind(String, boolean)}
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param permits the cost of the call, at least 1
+	 * @param argument the argument passed to the invocation
+	 * @param invocation the code to execute
+	 * @return the result of the execution
+	 * @throws BulkheadRateLimitException if limits are exceeded
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 * @throws Throwable if the invocation throws
+	 */
+	public <A, T> T execute(BoundPolicy policy, String key, int permits, A argument, Invocation<A, T> invocation)
+			throws Throwable {
+		return execute(policy, key, null, null, permits, argument, invocation);
+	}
+
+	/**
+	 * Executes an invocation made on behalf of a tenant and counted against a concurrency key. A FAIR_SHARE
+	 * bulkhead shares its permits among the tenants of waiting calls, and every bulkhead counts admissions
+	 * and waits per tenant; a policy with {@code maxConcurrentCallsPerKey} caps the calls in flight of each
+	 * concurrency key.
+	 * @param policy the policy, as returned by {@link #bind(String, boolean)}
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param tenant the tenant the call is made for, or null if it names none
+	 * @param concurrencyKey the key whose calls in flight are capped, or null if the call is not capped
+	 * @param permits the cost of the call, at least 1
+	 * @param argument the argument passed to the invocation
+	 * @param invocation the code to execute
+	 * @return the result of the execution
+	 * @throws BulkheadRateLimitException if limits are exceeded
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 * @throws Throwable if the invocation throws
+	 */
+	public <A, T> T execute(BoundPolicy policy, String key, String tenant, String concurrencyKey, int permits,
+							A argument, Invocation<A, T> invocation) throws Throwable {
+		LimiterContext limiter = policy.getLimiter();
+		PolicyStats stats = policy.getStats();
+		checkPermits(permits);
+
+		// Fail fast while the circuit is open, before taking anything from the limits
+		CircuitBreakerStrategy breaker = limiter.getCircuitBreaker();
+		long permission = breaker != null ? breaker.acquirePermission() : 0;
+		if (permission == CircuitBreakerStrategy.REJECTED) {
+			stats.recordCircuitBreakerRejected();
+			throw limiter.getCircuitBreakerRejection();
+		}
+
+		// Apply rate limit; rejections throw the policy's preallocated exception.
+		// In DELAY mode the call may first wait for the slot it reserved
+		long delay = reserveRateLimit(policy, key, permits);
+		if (delay > 0) {
+			// A call interrupted before its slot never runs: it counts as rejected, not as admitted
+			if (pause(delay)) {
+				stats.recordRateLimitSuccess();
+			} else {
+				stats.recordRateLimitRejected();
+				delay = -1;
+			}
+		}
+		if (delay < 0) {
+			releaseCircuitBreaker(breaker, permission);
+			throw limiter.getRateLimitRejection();
+		}
+
+		// Isolated bulkheads run the call on their own threads. The permit is released to the
+		// bulkhead it was taken from, even if the policy is reconfigured meanwhile
+		AsyncBulkhead front = limiter.getAsyncBulkhead();
+		BulkheadStrategy bulkhead = front.getBulkhead();
+		if (bulkhead instanceof ThreadPoolBulkheadStrategy pool) {
+			return executeIsolated(policy, pool, breaker, permission, concurrencyKey, permits, argument, invocation);
+		}
+
+		// Apply the concurrency key's cap, then the bulkhead; both are held, or neither
+		KeyedBulkheadStrategy keyedBulkhead = concurrencyKey != null ? limiter.getKeyedBulkhead() : null;
+		long waitStart = System.nanoTime();
+		boolean acquired = false;
+		if (keyedBulkhead == null || keyedBulkhead.tryAcquirePermission(concurrencyKey, permits)) {
 			try {
-				limiter.getRateLimit().consumePermission();
-				metrics.recordRateLimitSuccess(policyName);
-			} catch (RateLimitException e) {
-				metrics.recordRateLimitRejected(policyName);
-				throw new BulkheadRateLimitException("Rate limit exceeded for policy: " + policyName, e);
+				acquired = bulkhead.tryAcquirePermission(permits, policy.getPriority(), tenant);
+			} finally {
+				if (!acquired && keyedBulkhead != null) {
+					keyedBulkhead.releasePermission(concurrencyKey, permits);
+				}
+			}
+		}
+		long startTime = System.nanoTime();
+		stats.recordQueueWait(startTime - waitStart, startTime);
+		if (tenant != null) {
+			TenantStats tenantStats = stats.tenant(tenant, startTime);
+			if (acquired) {
+				tenantStats.recordAdmitted(startTime - waitStart);
+			} else {
+				tenantStats.recordRejected(startTime - waitStart);
 			}
+		}
+		if (!acquired) {
+			releaseCircuitBreaker(breaker, permission);
+			stats.recordBulkheadRejected();
+			throw limiter.getBulkheadRejection();
+		}
+		stats.recordBulkheadSuccess();
+
+		// Execute the call, always releasing the bulkhead and reporting its outcome to the circuit breaker
+		Throwable failure = null;
+		try {
+			return invocation.invoke(argument);
+		} catch (Throwable e) {
+			failure = e;
+			stats.recordExecutionError();
+			throw e;
+		} finally {
+			long endTime = System.nanoTime();
+			front.release(permits, endTime - startTime);
+			if (keyedBulkhead != null) {
+				keyedBulkhead.releasePermission(concurrencyKey, permits);
+			}
+			if (breaker != null) {
+				breaker.onResult(permission, failure, endTime - startTime);
+			}
+			stats.recordExecutionTime(endTime - startTime, endTime);
+		}
+	}
+
+	/**
+	 * Executes an asynchronous call with the bulkhead and rate limit of a bound policy, without blocking.
+	 * The bulkhead permit is held until the returned stage completes; when the bulkhead is full the call
+	 * waits in the policy's queue as a callback rather than on a thread. A call delayed by the rate
+	 * limit (DELAY mode) is started on a timer thread once its reserved slot is reached.
+	 * @param policy the policy, as returned by {@link #bind(String, boolean)}
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param argument the argument passed to the invocation
+	 * @param invocation the code starting the asynchronous call
+	 * @return the result of the call, completed exceptionally with a {@link BulkheadRateLimitException}
+	 * if limits are exceeded
+	 * @throws IllegalStateException if the policy's bulkhead runs calls on its own threads
+	 */
+	public <A, T> CompletableFuture<T> executeAsync(BoundPolicy policy, String key, A argument,
+													Invocation<A, ? extends CompletionStage<T>> invocation) {
+		return executeAsync(policy, key, 1, argument, invocation);
+	}
+
+	/**
+	 * Executes an asynchronous call weighing {@code permits} calls, without blocking
+	 * @see #executeAsync(BoundPolicy, String, Object, Invocation)
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 */
+	public <A, T> CompletableFuture<T> executeAsync(BoundPolicy policy, String key, int permits, A argument,
+													Invocation<A, ? extends CompletionStage<T>> invocation) {
+		return executeAsync(policy, key, null, null, permits, argument, invocation);
+	}
 
-			// Apply bulkhead
+	/**
+	 * Executes an asynchronous call made on behalf of a tenant and counted against a concurrency key, without
+	 * blocking. A FAIR_SHARE bulkhead shares its permits among the tenants of waiting calls, and every bulkhead
+	 * counts admissions and waits per tenant; a policy with {@code maxConcurrentCallsPerKey} caps the calls of
+	 * each concurrency key in flight, until their stage completes.
+	 * @param tenant the tenant the call is made for, or null if it names none
+	 * @param concurrencyKey the key whose calls in flight are capped, or null if the call is not capped
+	 * @see #executeAsync(BoundPolicy, String, Object, Invocation)
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 */
+	public <A, T> CompletableFuture<T> executeAsync(BoundPolicy policy, String key, String tenant, String concurrencyKey,
+													int permits, A argument,
+													Invocation<A, ? extends CompletionStage<T>> invocation) {
+		checkPermits(permits);
+		LimiterContext limiter = policy.getLimiter();
+		CircuitBreakerStrategy breaker = limiter.getCircuitBreaker();
+		long permission = breaker != null ? breaker.acquirePermission() : 0;
+		if (permission == CircuitBreakerStrategy.REJECTED) {
+			policy.getStats().recordCircuitBreakerRejected();
+			return CompletableFuture.failedFuture(limiter.getCircuitBreakerRejection());
+		}
+		long delay = reserveRateLimit(policy, key, permits);
+		if (delay < 0) {
+			releaseCircuitBreaker(breaker, permission);
+			return CompletableFuture.failedFuture(limiter.getRateLimitRejection());
+		}
+		CompletableFuture<T> result = new CompletableFuture<>();
+		if (delay == 0) {
+			return admitAsync(policy, breaker, permission, tenant, concurrencyKey, permits, argument, invocation, result);
+		}
+
+		// Nothing is held while waiting for the slot; a call cancelled meanwhile never starts
+		CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+			if (result.isDone()) {
+				releaseCircuitBreaker(breaker, permission);
+				return;
+			}
+			policy.getStats().recordRateLimitSuccess();
 			try {
-				limiter.getBulkhead().acquirePermission();
-				bulkheadAcquired = true;
-				metrics.recordBulkheadSuccess(policyName);
-			} catch (BulkheadException e) {
-				metrics.recordBulkheadRejected(policyName);
-				throw new BulkheadRateLimitException("Bulkhead limit exceeded for policy: " + policyName, e);
+				admitAsync(policy, breaker, permission, tenant, concurrencyKey, permits, argument, invocation, result);
+			} catch (RuntimeException e) {
+				releaseCircuitBreaker(breaker, permission);
+				result.completeExceptionally(e);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Acquires the bulkhead for an asynchronous call admitted by the circuit breaker and the rate limit, then starts it
+	 * @return {@code result}, completed with the outcome of the call
+	 */
+	private <A, T> CompletableFuture<T> admitAsync(BoundPolicy policy, CircuitBreakerStrategy breaker, long permission,
+												   String tenant, String concurrencyKey, int permits, A argument,
+												   Invocation<A, ? extends CompletionStage<T>> invocation,
+												   CompletableFuture<T> result) {
+		LimiterContext limiter = policy.getLimiter();
+		AsyncPermit permit = acquireAsync(policy, tenant, concurrencyKey, permits);
+		if (permit == null) {
+			releaseCircuitBreaker(breaker, permission);
+			result.completeExceptionally(limiter.getBulkheadRejection());
+			return result;
+		}
+
+		permit.ready().whenComplete((ignored, error) -> {
+			if (error != null) {
+				releaseCircuitBreaker(breaker, permission);
+				result.completeExceptionally(limiter.getBulkheadRejection());
+				return;
+			}
+			if (result.isDone()) {
+				// Cancelled by the caller right as the permit was granted
+				permit.release();
+				releaseCircuitBreaker(breaker, permission);
+				return;
+			}
+
+			long startTime = System.nanoTime();
+			CompletionStage<T> stage;
+			try {
+				stage = invocation.invoke(argument);
+			} catch (Throwable e) {
+				permit.release();
+				recordOutcome(breaker, permission, e, startTime);
+				policy.getStats().recordExecutionError();
+				result.completeExceptionally(e);
+				return;
+			}
+			if (stage == null) {
+				permit.release();
+				recordOutcome(breaker, permission, null, startTime);
+				result.complete(null);
+				return;
+			}
+			stage.whenComplete((value, failure) -> {
+				permit.release();
+				recordOutcome(breaker, permission, failure, startTime);
+				if (failure != null) {
+					policy.getStats().recordExecutionError();
+					result.completeExceptionally(failure);
+				} else {
+					result.complete(value);
+				}
+			});
+		});
+		result.whenComplete((ignored, error) -> {
+			if (result.isCancelled()) {
+				permit.cancelWaiting();
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Gives back the circuit breaker permission of a call rejected before it ran
+	 */
+	static void releaseCircuitBreaker(CircuitBreakerStrategy breaker, long permission) {
+		if (breaker != null) {
+			breaker.releasePermission(permission);
+		}
+	}
+
+	/**
+	 * Reports the outcome of a call started at {@code startNanos} to the circuit breaker, if any
+	 * @param failure the exception the call failed with, or null if it succeeded
+	 */
+	static void recordOutcome(CircuitBreakerStrategy breaker, long permission, Throwable failure, long startNanos) {
+		if (breaker != null) {
+			breaker.onResult(permission, failure, System.nanoTime() - startNanos);
+		}
+	}
+
+	static void checkPermits(int permits) {
+		if (permits < 1) {
+			throw new IllegalArgumentException("Permits must be at least 1, got " + permits);
+		}
+	}
+
+	/**
+	 * Consumes rate limit permissions, recording the outcome. In DELAY mode, permissions not
+	 * available yet are reserved if the call can wait for them; such a call is only counted as
+	 * admitted by the caller once its slot is reached, through {@link PolicyStats#recordRateLimitSuccess()}.
+	 * @return the time the call must wait before proceeding, 0 to proceed now, or -1 if the rate limit rejects it
+	 */
+	long reserveRateLimit(BoundPolicy policy, String key, int permits) {
+		LimiterContext limiter = policy.getLimiter();
+		PolicyStats stats = policy.getStats();
+		long maxWait = limiter.getRateLimitMaxWaitNanos();
+		long start = System.nanoTime();
+		KeyedRateLimitStrategy keyedRateLimit = key != null ? limiter.getKeyedRateLimit() : null;
+		long delay;
+		if (maxWait == 0) {
+			boolean permitted = keyedRateLimit != null
+					? keyedRateLimit.tryConsumePermission(key, permits)
+					: limiter.getRateLimit().tryConsumePermission(permits);
+			delay = permitted ? 0 : -1;
+		} else {
+			delay = keyedRateLimit != null
+					? keyedRateLimit.reservePermission(key, permits, maxWait)
+					: limiter.getRateLimit().reservePermission(permits, maxWait);
+		}
+		long end = System.nanoTime();
+		stats.recordDecisionTime(end - start, end);
+		if (delay < 0) {
+			stats.recordRateLimitRejected();
+			return delay;
+		}
+		if (delay > 0) {
+			stats.recordRateLimitDelay(delay, end);
+		} else {
+			stats.recordRateLimitSuccess();
+		}
+		return delay;
+	}
+
+	/**
+	 * Parks the calling thread until its reserved rate limit slot
+	 * @return false if the thread was interrupted meanwhile; its interrupt status is kept
+	 */
+	private static boolean pause(long nanos) {
+		long deadline = System.nanoTime() + nanos;
+		for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(remaining);
+			if (Thread.currentThread().isInterrupted()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Acquires a bulkhead permit for an asynchronous call without blocking, recording the outcome.
+	 * The concurrency key's cap is applied first, and its permits are held as long as the bulkhead's.
+	 * @param tenant the tenant the call is made for, or null if it names none
+	 * @param concurrencyKey the key whose calls in flight are capped, or null if the call is not capped
+	 * @return the permit, possibly still waiting in the queue, or null if the bulkhead rejects the call
+	 * @throws IllegalStateException if the policy's bulkhead runs calls on its own threads
+	 */
+	AsyncPermit acquireAsync(BoundPolicy policy, String tenant, String concurrencyKey, int permits) {
+		LimiterContext limiter = policy.getLimiter();
+		AsyncBulkhead asyncBulkhead = limiter.getAsyncBulkhead();
+		if (asyncBulkhead.getBulkhead() instanceof ThreadPoolBulkheadStrategy) {
+			throw new IllegalStateException(
+					"THREAD_POOL bulkhead does not support asynchronous calls, policy: " + policy.getName());
+		}
+
+		PolicyStats stats = policy.getStats();
+		long waitStart = System.nanoTime();
+		KeyedBulkheadStrategy keyedBulkhead = concurrencyKey != null ? limiter.getKeyedBulkhead() : null;
+		AsyncPermit permit = null;
+		if (keyedBulkhead == null || keyedBulkhead.tryAcquirePermission(concurrencyKey, permits)) {
+			permit = asyncBulkhead.acquire(permits, policy.getPriority(), tenant, keyedBulkhead, concurrencyKey);
+			if (permit == null && keyedBulkhead != null) {
+				keyedBulkhead.releasePermission(concurrencyKey, permits);
 			}
+		}
+		if (permit == null || permit.isGranted()) {
+			long now = System.nanoTime();
+			stats.recordQueueWait(now - waitStart, now);
+			if (permit == null) {
+				stats.recordBulkheadRejected();
+			} else {
+				stats.recordBulkheadSuccess();
+			}
+			recordTenant(stats, tenant, permit != null, now - waitStart, now);
+		} else {
+			permit.ready().whenComplete((ignored, error) -> {
+				long now = System.nanoTime();
+				stats.recordQueueWait(now - waitStart, now);
+				if (error == null) {
+					stats.recordBulkheadSuccess();
+					recordTenant(stats, tenant, true, now - waitStart, now);
+				} else if (!(error instanceof CancellationException)) {
+					// Timed out, or shed for a call of higher priority or of a busier tenant
+					stats.recordBulkheadRejected();
+					recordTenant(stats, tenant, false, now - waitStart, now);
+				}
+			});
+		}
+		return permit;
+	}
 
-			// Execute the call
+	private static void recordTenant(PolicyStats stats, String tenant, boolean admitted, long waitNanos, long now) {
+		if (tenant != null) {
+			TenantStats tenantStats = stats.tenant(tenant, now);
+			if (admitted) {
+				tenantStats.recordAdmitted(waitNanos);
+			} else {
+				tenantStats.recordRejected(waitNanos);
+			}
+		}
+	}
+
+	private <A, T> T executeIsolated(BoundPolicy policy, ThreadPoolBulkheadStrategy pool, CircuitBreakerStrategy breaker,
+									 long permission, String concurrencyKey, int permits, A argument,
+									 Invocation<A, T> invocation) throws Exception {
+		PolicyStats stats = policy.getStats();
+		// The concurrency key's cap counts the call from its submission until it ends, or is dropped unstarted
+		KeyedBulkheadStrategy keyedBulkhead = concurrencyKey != null ? policy.getLimiter().getKeyedBulkhead() : null;
+		if (keyedBulkhead != null && !keyedBulkhead.tryAcquirePermission(concurrencyKey, permits)) {
+			releaseCircuitBreaker(breaker, permission);
+			stats.recordBulkheadRejected();
+			throw policy.getLimiter().getBulkheadRejection();
+		}
+
+		// Handing the call to another thread needs a task object; only this path allocates
+		IsolatedCall<A, T> call = new IsolatedCall<>(stats, breaker, permission, keyedBulkhead, concurrencyKey, permits,
+				argument, invocation);
+		Future<T> future = pool.submit(call);
+		if (future == null) {
+			call.reject();
+			releaseCircuitBreaker(breaker, permission);
+			stats.recordBulkheadRejected();
+			throw policy.getLimiter().getBulkheadRejection();
+		}
+		stats.recordBulkheadSuccess();
+
+		try {
+			return pool.await(future);
+		} catch (BulkheadException e) {
+			// Timed out or interrupted: a failure, whether the call is still queued, running or ends meanwhile
+			call.abandon(e);
+			stats.recordExecutionError();
+			throw new BulkheadRateLimitException("Bulkhead call timeout exceeded for policy: " + policy.getName(), e);
+		} catch (Exception e) {
+			stats.recordExecutionError();
+			throw e;
+		}
+	}
+
+	/**
+	 * A call handed to a THREAD_POOL bulkhead. It either runs, releasing its concurrency key's permits when it
+	 * ends, or is abandoned by its caller before starting and releases them then; never both.
+	 * Its outcome is reported to the circuit breaker once, by whichever of the call ending and the caller
+	 * giving up on it comes first: a call its caller stopped waiting for counts as failed, even if it never ran.
+	 */
+	private static final class IsolatedCall<A, T> implements Callable<T> {
+		private final PolicyStats stats;
+		private final CircuitBreakerStrategy breaker;
+		private final long permission;
+		private final KeyedBulkheadStrategy keyedBulkhead;
+		private final String concurrencyKey;
+		private final int permits;
+		private final A argument;
+		private final Invocation<A, T> invocation;
+		private final long submitTime = System.nanoTime();
+		private final AtomicBoolean started = new AtomicBoolean();
+		private final AtomicBoolean reported = new AtomicBoolean();
+
+		private IsolatedCall(PolicyStats stats, CircuitBreakerStrategy breaker, long permission,
+							 KeyedBulkheadStrategy keyedBulkhead, String concurrencyKey, int permits,
+							 A argument, Invocation<A, T> invocation) {
+			this.stats = stats;
+			this.breaker = breaker;
+			this.permission = permission;
+			this.keyedBulkhead = keyedBulkhead;
+			this.concurrencyKey = concurrencyKey;
+			this.permits = permits;
+			this.argument = argument;
+			this.invocation = invocation;
+		}
+
+		@Override
+		public T call() throws Exception {
+			if (!started.compareAndSet(false, true)) {
+				// Abandoned by its caller while queued
+				return null;
+			}
+			long startTime = System.nanoTime();
+			stats.recordQueueWait(startTime - submitTime, startTime);
+			Throwable failure = null;
 			try {
-				return executable.get();
-			} catch (Exception e) {
-				metrics.recordExecutionError(policyName);
+				return invocation.invoke(argument);
+			} catch (Exception | Error e) {
+				failure = e;
 				throw e;
+			} catch (Throwable e) {
+				failure = e;
+				throw new UndeclaredThrowableException(e);
+			} finally {
+				long endTime = System.nanoTime();
+				releaseKey();
+				if (breaker != null && reported.compareAndSet(false, true)) {
+					breaker.onResult(permission, failure, endTime - startTime);
+				}
+				stats.recordExecutionTime(endTime - startTime, endTime);
 			}
-		} finally {
-			// Always release the bulkhead if acquired
-			if (bulkheadAcquired) {
-				limiter.getBulkhead().releasePermission();
+		}
+
+		/**
+		 * Drops a call the bulkhead refused, which will never start
+		 */
+		private void reject() {
+			started.set(true);
+			releaseKey();
+		}
+
+		/**
+		 * Gives up a call its caller no longer waits for, releasing what it holds if it never started,
+		 * and reporting it as failed unless it already ended
+		 * @param failure why the caller stopped waiting
+		 */
+		private void abandon(Throwable failure) {
+			if (started.compareAndSet(false, true)) {
+				releaseKey();
+			}
+			if (breaker != null && reported.compareAndSet(false, true)) {
+				breaker.onResult(permission, failure, System.nanoTime() - submitTime);
+			}
+		}
+
+		private void releaseKey() {
+			if (keyedBulkhead != null) {
+				keyedBulkhead.releasePermission(concurrencyKey, permits);
 			}
 		}
 	}
@@ -83,10 +685,22 @@ public class BulkheadRateLimitManager {
 	 */
 	public void execute(String policyName, boolean fallbackToDefault, CheckedRunnable executable)
 			throws BulkheadRateLimitException, Exception {
-		execute(policyName, fallbackToDefault, () -> {
-			executable.run();
-			return null;
-		});
+		try {
+			execute(bind(policyName, fallbackToDefault), null, executable, RUNNABLE);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new UndeclaredThrowableException(e);
+		}
+	}
+
+	/**
+	 * Functional interface for code that receives an argument and may throw anything,
+	 * such as {@code ProceedingJoinPoint::proceed}
+	 */
+	@FunctionalInterface
+	public interface Invocation<A, T> {
+		T invoke(A argument) throws Throwable;
 	}
 
 	/**
@@ -0,0 +1,47 @@
+package com.murilo_pereira.httpresolve.core;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Re-applies the policies when the environment changes at runtime, as signalled by Spring Cloud's
+ * {@code EnvironmentChangeEvent} (e.g. after {@code /actuator/refresh}). Spring Cloud is not required:
+ * the event is matched by name.
+ * <p>
+ * The properties are bound again from the environment rather than read from the properties bean,
+ * so the outcome does not depend on whether the bean was rebound before this listener runs.
+ */
+public class BulkheadRateLimitRefreshListener implements SmartApplicationListener {
+	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitRefreshListener.class);
+	private static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
+	private final BulkheadRateLimitRegistry registry;
+	private final Environment environment;
+
+	public BulkheadRateLimitRefreshListener(BulkheadRateLimitRegistry registry, Environment environment) {
+		this.registry = registry;
+		this.environment = environment;
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return ENVIRONMENT_CHANGE_EVENT.equals(eventType.getName());
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		BulkheadRateLimitProperties properties = Binder.get(environment)
+				.bind("bulkhead-rate-limit", BulkheadRateLimitProperties.class)
+				.orElseGet(BulkheadRateLimitProperties::new);
+		try {
+			registry.reconfigure(properties);
+		} catch (IllegalArgumentException e) {
+			log.error("Invalid bulkhead/rate-limit configuration, keeping the previous one: {}", e.getMessage());
+		}
+	}
+}
@@ -1,20 +1,39 @@
 package com.murilo_pereira.httpresolve.core;
 
 import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.store.RateLimitStore;
+import com.murilo_pereira.httpresolve.strategy.AdaptiveBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.AtomicBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.BoundedKeyedRateLimitStrategy;
 import com.murilo_pereira.httpresolve.strategy.BulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.CircuitBreakerStrategy;
+import com.murilo_pereira.httpresolve.strategy.DistributedRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.FairShareBulkheadStrategy;
 import com.murilo_pereira.httpresolve.strategy.FixedWindowRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.GcraRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.OffHeapKeyedRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.PriorityBulkheadStrategy;
 import com.murilo_pereira.httpresolve.strategy.RateLimitStrategy;
 import com.murilo_pereira.httpresolve.strategy.SemaphoreBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.SlidingWindowRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.ThreadPoolBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.TokenBucketRateLimitStrategy;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Registry for all configured limiters
@@ -24,11 +43,46 @@ public class BulkheadRateLimitRegistry {
 	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitRegistry.class);
 
 	private final Map<String, LimiterContext> limiters = new ConcurrentHashMap<>();
+	private final Map<String, BulkheadRateLimitProperties.PolicyConfig> configs = new ConcurrentHashMap<>();
+	// Policies as last read from the properties, so a refresh only applies those whose properties changed
+	private final Map<String, BulkheadRateLimitProperties.PolicyConfig> boundConfigs = new ConcurrentHashMap<>();
+	private final List<PolicyListener> listeners = new CopyOnWriteArrayList<>();
 	private final BulkheadRateLimitProperties properties;
+	private final RateLimitStore store;
+
+	/**
+	 * Notified of the changes made to the policies at runtime, so that state derived from them
+	 * (meters, policies bound by name...) can follow
+	 */
+	public interface PolicyListener {
+		/**
+		 * A policy was created after startup; callers that fell back to the default policy may now bind it
+		 */
+		default void policyCreated(String name) {
+		}
+
+		/**
+		 * A policy was reconfigured; some of its strategies may have been added, replaced or removed
+		 */
+		default void policyReconfigured(String name) {
+		}
+	}
 
-	@Autowired
 	public BulkheadRateLimitRegistry(BulkheadRateLimitProperties properties) {
+		this(properties, null);
+	}
+
+	/**
+	 * @param store the shared store enforcing rate limits across instances when {@code distributed-limiter}
+	 * is enabled, or null to enforce them on each instance
+	 */
+	@Autowired
+	public BulkheadRateLimitRegistry(BulkheadRateLimitProperties properties, RateLimitStore store) {
 		this.properties = properties;
+		this.store = properties.isDistributedLimiter() ? store : null;
+		if (properties.isDistributedLimiter() && store == null) {
+			log.warn("Distributed rate limiting is enabled but no RateLimitStore is available: limits apply per instance");
+		}
 	}
 
 	@PostConstruct
@@ -38,6 +92,7 @@ public class BulkheadRateLimitRegistry {
 			for (Map.Entry<String, BulkheadRateLimitProperties.PolicyConfig> entry : properties.getPolicies().entrySet()) {
 				String name = entry.getKey();
 				BulkheadRateLimitProperties.PolicyConfig config = entry.getValue();
+				boundConfigs.put(name, config.copy());
 
 				if (config.isEnabled()) {
 					createLimiter(name, config);
@@ -56,18 +111,300 @@ public class BulkheadRateLimitRegistry {
 	}
 
 	private void createLimiter(String name, BulkheadRateLimitProperties.PolicyConfig config) {
-		BulkheadStrategy bulkhead = new SemaphoreBulkheadStrategy(config.getBulkhead());
+		BulkheadStrategy bulkhead = createBulkhead(name, config.getBulkhead());
 
-		RateLimitStrategy rateLimit;
-		String strategy = config.getRateLimit().getStrategy();
-		if ("FIXED_WINDOW".equalsIgnoreCase(strategy)) {
-			rateLimit = new FixedWindowRateLimitStrategy(config.getRateLimit());
-		} else {
+		BulkheadRateLimitProperties.RateLimitConfig rateLimitConfig = config.getRateLimit();
+		String strategy = rateLimitConfig.getStrategy();
+		if (!isSupportedStrategy(strategy)) {
 			log.warn("Unsupported rate limit strategy: {}. Using FIXED_WINDOW", strategy);
-			rateLimit = new FixedWindowRateLimitStrategy(config.getRateLimit());
 		}
+		// Only limiters created at startup warm up; a replacement takes over a warm node
+		RateLimitStrategy rateLimit = createRateLimit(name, rateLimitConfig, rateLimitConfig.getWarmUp());
+		KeyedRateLimitStrategy keyedRateLimit = createKeyedRateLimit(name, rateLimitConfig);
+
+		LimiterContext limiter = new LimiterContext(name, bulkhead, rateLimit, keyedRateLimit, config.getBulkhead());
+		limiter.setRateLimitMaxWaitNanos(maxWaitNanos(rateLimitConfig));
+		if (config.getBulkhead().getMaxConcurrentCallsPerKey() > 0) {
+			limiter.replaceKeyedBulkhead(new KeyedBulkheadStrategy(config.getBulkhead()));
+		}
+		if (config.getCircuitBreaker().isEnabled()) {
+			limiter.replaceCircuitBreaker(new CircuitBreakerStrategy(config.getCircuitBreaker()));
+		}
+		limiters.put(name, limiter);
+		configs.put(name, config.copy());
+	}
+
+	/**
+	 * Registers a listener notified of the policies created and reconfigured from now on
+	 */
+	public void addPolicyListener(PolicyListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Applies the policies of a new configuration at runtime, see {@link #reconfigure(String, BulkheadRateLimitProperties.PolicyConfig)}.
+	 * Only policies whose properties changed since they were last read are applied, so a change made
+	 * through {@link #reconfigure(String, BulkheadRateLimitProperties.PolicyConfig)} outlives refreshes
+	 * of unrelated properties. Policies missing from the new configuration, or disabled in it, keep
+	 * their current settings.
+	 * @param properties the new configuration
+	 */
+	public synchronized void reconfigure(BulkheadRateLimitProperties properties) {
+		for (Map.Entry<String, BulkheadRateLimitProperties.PolicyConfig> entry : properties.getPolicies().entrySet()) {
+			String name = entry.getKey();
+			BulkheadRateLimitProperties.PolicyConfig config = entry.getValue();
+			if (config.isEnabled() && !config.equals(boundConfigs.get(name))) {
+				reconfigure(name, config);
+				boundConfigs.put(name, config.copy());
+			}
+		}
+	}
+
+	/**
+	 * Applies a new configuration to a policy at runtime, creating the policy if it does not exist.
+	 * <p>
+	 * Limits are changed in place when the strategy supports it, keeping its counters and the
+	 * permits held by calls in flight. Otherwise (another type, a fixed-size structure resized...) the
+	 * strategy is replaced: calls in flight release their permits to the previous one, and a previous
+	 * thread pool completes its queued calls before stopping. Call statistics are always kept.
+	 * A configuration equal to the current one changes nothing.
+	 * @param name the policy name
+	 * @param config the new configuration of the policy, copied: later changes to it have no effect
+	 * @throws IllegalArgumentException if the configuration is invalid; the policy then goes back to its
+	 * current configuration
+	 */
+	public synchronized void reconfigure(String name, BulkheadRateLimitProperties.PolicyConfig config) {
+		LimiterContext limiter = limiters.get(name);
+		if (limiter == null) {
+			createLimiter(name, config);
+			log.info("Created bulkhead/rate-limit for policy: {}", name);
+			listeners.forEach(listener -> listener.policyCreated(name));
+			return;
+		}
+
+		BulkheadRateLimitProperties.PolicyConfig previous = configs.get(name);
+		if (config.equals(previous)) {
+			return;
+		}
+		try {
+			apply(limiter, config);
+		} catch (RuntimeException e) {
+			// Undo the parts applied before the invalid one; the previous configuration was valid
+			try {
+				apply(limiter, previous);
+			} catch (RuntimeException rollback) {
+				e.addSuppressed(rollback);
+			}
+			throw e;
+		}
+		configs.put(name, config.copy());
+		log.info("Reconfigured bulkhead/rate-limit for policy: {}", name);
+		listeners.forEach(listener -> listener.policyReconfigured(name));
+	}
 
-		limiters.put(name, new LimiterContext(name, bulkhead, rateLimit));
+	private void apply(LimiterContext limiter, BulkheadRateLimitProperties.PolicyConfig config) {
+		reconfigureRateLimit(limiter, config.getRateLimit());
+		reconfigureBulkhead(limiter, config.getBulkhead());
+		reconfigureCircuitBreaker(limiter, config.getCircuitBreaker());
+	}
+
+	private void reconfigureRateLimit(LimiterContext limiter, BulkheadRateLimitProperties.RateLimitConfig config) {
+		RateLimitStrategy rateLimit = limiter.getRateLimit();
+		RateLimitStrategy local = rateLimit instanceof DistributedRateLimitStrategy distributed
+				? distributed.getFallback()
+				: rateLimit;
+		boolean sameStrategy = local.getClass() == rateLimitType(config.getStrategy());
+		if (!sameStrategy || !rateLimit.reconfigure(config)) {
+			limiter.replaceRateLimit(createRateLimit(limiter.getName(), config, Duration.ZERO));
+		}
+		limiter.setRateLimitMaxWaitNanos(maxWaitNanos(config));
+
+		KeyedRateLimitStrategy keyedRateLimit = limiter.getKeyedRateLimit();
+		Class<?> keyedType = "OFF_HEAP".equalsIgnoreCase(config.getKeyStorage())
+				? OffHeapKeyedRateLimitStrategy.class
+				: BoundedKeyedRateLimitStrategy.class;
+		if (!sameStrategy || keyedRateLimit.getClass() != keyedType || !keyedRateLimit.reconfigure(config)) {
+			limiter.replaceKeyedRateLimit(createKeyedRateLimit(limiter.getName(), config));
+		}
+	}
+
+	private static void reconfigureBulkhead(LimiterContext limiter, BulkheadRateLimitProperties.BulkheadConfig config) {
+		checkQueueDiscipline(config);
+		limiter.getStats().setMaxTenants(config.getMaxTenants());
+		reconfigureKeyedBulkhead(limiter, config);
+		BulkheadStrategy bulkhead = limiter.getBulkhead();
+		if (bulkhead.getClass() == bulkheadType(config.getType()) && bulkhead.reconfigure(config)) {
+			limiter.getAsyncBulkhead().reconfigure(config);
+			return;
+		}
+		BulkheadStrategy previous = limiter.replaceBulkhead(createBulkhead(limiter.getName(), config), config);
+		if (previous instanceof ThreadPoolBulkheadStrategy pool) {
+			pool.drain();
+		}
+	}
+
+	private static void reconfigureCircuitBreaker(LimiterContext limiter,
+												  BulkheadRateLimitProperties.CircuitBreakerConfig config) {
+		CircuitBreakerStrategy circuitBreaker = limiter.getCircuitBreaker();
+		if (!config.isEnabled()) {
+			limiter.replaceCircuitBreaker(null);
+		} else if (circuitBreaker == null || !circuitBreaker.reconfigure(config)) {
+			limiter.replaceCircuitBreaker(new CircuitBreakerStrategy(config));
+		}
+	}
+
+	private static void reconfigureKeyedBulkhead(LimiterContext limiter, BulkheadRateLimitProperties.BulkheadConfig config) {
+		KeyedBulkheadStrategy keyedBulkhead = limiter.getKeyedBulkhead();
+		if (config.getMaxConcurrentCallsPerKey() <= 0) {
+			limiter.replaceKeyedBulkhead(null);
+		} else if (keyedBulkhead != null) {
+			keyedBulkhead.reconfigure(config);
+		} else {
+			limiter.replaceKeyedBulkhead(new KeyedBulkheadStrategy(config));
+		}
+	}
+
+	/**
+	 * Copy of the current configuration of a policy, or a default configuration if the policy does not exist.
+	 * Changes to the returned object take effect through {@link #reconfigure(String, BulkheadRateLimitProperties.PolicyConfig)}.
+	 */
+	public BulkheadRateLimitProperties.PolicyConfig getPolicyConfig(String name) {
+		BulkheadRateLimitProperties.PolicyConfig config = configs.get(name);
+		return config != null ? config.copy() : new BulkheadRateLimitProperties.PolicyConfig();
+	}
+
+	private static KeyedRateLimitStrategy createKeyedRateLimit(String name,
+															   BulkheadRateLimitProperties.RateLimitConfig config) {
+		String storage = config.getKeyStorage();
+		if ("OFF_HEAP".equalsIgnoreCase(storage)) {
+			if (!"GCRA".equalsIgnoreCase(config.getStrategy())) {
+				log.info("Policy {} uses OFF_HEAP key storage: per-key limits are enforced with GCRA", name);
+			}
+			return new OffHeapKeyedRateLimitStrategy(config);
+		}
+		if (!"HEAP".equalsIgnoreCase(storage)) {
+			log.warn("Unsupported key storage: {}. Using HEAP", storage);
+		}
+		return new BoundedKeyedRateLimitStrategy(config, keyConfig -> createRateLimit(keyConfig, Duration.ZERO));
+	}
+
+	private static BulkheadStrategy createBulkhead(String name, BulkheadRateLimitProperties.BulkheadConfig config) {
+		checkQueueDiscipline(config);
+		String type = config.getType();
+		if ("ATOMIC".equalsIgnoreCase(type)) {
+			return new AtomicBulkheadStrategy(config);
+		}
+		if ("THREAD_POOL".equalsIgnoreCase(type)) {
+			return new ThreadPoolBulkheadStrategy(name, config);
+		}
+		if ("ADAPTIVE".equalsIgnoreCase(type)) {
+			return new AdaptiveBulkheadStrategy(config);
+		}
+		if ("PRIORITY".equalsIgnoreCase(type)) {
+			return new PriorityBulkheadStrategy(config);
+		}
+		if ("FAIR_SHARE".equalsIgnoreCase(type)) {
+			return new FairShareBulkheadStrategy(config);
+		}
+		if (!"SEMAPHORE".equalsIgnoreCase(type)) {
+			log.warn("Unsupported bulkhead type: {}. Using SEMAPHORE", type);
+		}
+		return new SemaphoreBulkheadStrategy(config);
+	}
+
+	private static void checkQueueDiscipline(BulkheadRateLimitProperties.BulkheadConfig config) {
+		String discipline = config.getQueueDiscipline();
+		if (!"FIFO".equalsIgnoreCase(discipline)
+				&& !"CODEL".equalsIgnoreCase(discipline)
+				&& !"ADAPTIVE_LIFO".equalsIgnoreCase(discipline)) {
+			log.warn("Unsupported queue discipline: {}. Using FIFO", discipline);
+		}
+	}
+
+	private static Class<? extends BulkheadStrategy> bulkheadType(String type) {
+		if ("ATOMIC".equalsIgnoreCase(type)) {
+			return AtomicBulkheadStrategy.class;
+		}
+		if ("THREAD_POOL".equalsIgnoreCase(type)) {
+			return ThreadPoolBulkheadStrategy.class;
+		}
+		if ("ADAPTIVE".equalsIgnoreCase(type)) {
+			return AdaptiveBulkheadStrategy.class;
+		}
+		if ("PRIORITY".equalsIgnoreCase(type)) {
+			return PriorityBulkheadStrategy.class;
+		}
+		if ("FAIR_SHARE".equalsIgnoreCase(type)) {
+			return FairShareBulkheadStrategy.class;
+		}
+		return SemaphoreBulkheadStrategy.class;
+	}
+
+	private static boolean isSupportedStrategy(String strategy) {
+		return "FIXED_WINDOW".equalsIgnoreCase(strategy)
+				|| "SLIDING_WINDOW".equalsIgnoreCase(strategy)
+				|| "TOKEN_BUCKET".equalsIgnoreCase(strategy)
+				|| "GCRA".equalsIgnoreCase(strategy);
+	}
+
+	private static RateLimitStrategy createRateLimit(BulkheadRateLimitProperties.RateLimitConfig config, Duration warmUp) {
+		String strategy = config.getStrategy();
+		if ("SLIDING_WINDOW".equalsIgnoreCase(strategy)) {
+			return new SlidingWindowRateLimitStrategy(config);
+		} else if ("TOKEN_BUCKET".equalsIgnoreCase(strategy)) {
+			return new TokenBucketRateLimitStrategy(config, warmUp);
+		} else if ("GCRA".equalsIgnoreCase(strategy)) {
+			return new GcraRateLimitStrategy(config, warmUp);
+		}
+		return new FixedWindowRateLimitStrategy(config);
+	}
+
+	/**
+	 * Creates the shared rate limiter of a policy, enforced across instances if a store is configured.
+	 * Per-key limiters always stay local.
+	 */
+	private RateLimitStrategy createRateLimit(String name, BulkheadRateLimitProperties.RateLimitConfig config,
+											  Duration warmUp) {
+		RateLimitStrategy local = createRateLimit(config, warmUp);
+		return store != null ? new DistributedRateLimitStrategy(name, config, store, local) : local;
+	}
+
+	/**
+	 * Longest wait for a reserved slot, 0 when calls over the limit are rejected
+	 */
+	private static long maxWaitNanos(BulkheadRateLimitProperties.RateLimitConfig config) {
+		String mode = config.getMode();
+		if ("DELAY".equalsIgnoreCase(mode)) {
+			if (!"TOKEN_BUCKET".equalsIgnoreCase(config.getStrategy()) && !"GCRA".equalsIgnoreCase(config.getStrategy())) {
+				log.info("Rate limit strategy {} cannot reserve future slots: DELAY mode only admits calls that fit now",
+						config.getStrategy());
+			}
+			return Math.max(0, config.getMaxWait().toNanos());
+		}
+		if (!"REJECT".equalsIgnoreCase(mode)) {
+			log.warn("Unsupported rate limit mode: {}. Using REJECT", mode);
+		}
+		return 0;
+	}
+
+	private static Class<? extends RateLimitStrategy> rateLimitType(String strategy) {
+		if ("SLIDING_WINDOW".equalsIgnoreCase(strategy)) {
+			return SlidingWindowRateLimitStrategy.class;
+		} else if ("TOKEN_BUCKET".equalsIgnoreCase(strategy)) {
+			return TokenBucketRateLimitStrategy.class;
+		} else if ("GCRA".equalsIgnoreCase(strategy)) {
+			return GcraRateLimitStrategy.class;
+		}
+		return FixedWindowRateLimitStrategy.class;
+	}
+
+	@PreDestroy
+	public void destroy() {
+		for (LimiterContext limiter : limiters.values()) {
+			if (limiter.getBulkhead() instanceof ThreadPoolBulkheadStrategy pool) {
+				pool.shutdown();
+			}
+		}
 	}
 
 	public Set<String> getPolicyNames() {
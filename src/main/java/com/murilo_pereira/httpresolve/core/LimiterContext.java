@@ -1,21 +1,55 @@
 package com.murilo_pereira.httpresolve.core;
 
-
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
+import com.murilo_pereira.httpresolve.metrics.PolicyStats;
 import com.murilo_pereira.httpresolve.strategy.BulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.CircuitBreakerStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedRateLimitStrategy;
 import com.murilo_pereira.httpresolve.strategy.RateLimitStrategy;
 
 /**
  * Context holding both bulkhead and rate limit for a policy
+ * <p>
+ * The strategies may be replaced when the policy is reconfigured at runtime; statistics and
+ * rejections belong to the policy and survive the replacement.
  */
 public class LimiterContext {
 	private final String name;
-	private final BulkheadStrategy bulkhead;
-	private final RateLimitStrategy rateLimit;
+	private volatile AsyncBulkhead asyncBulkhead;
+	private volatile RateLimitStrategy rateLimit;
+	private volatile KeyedRateLimitStrategy keyedRateLimit;
+	private volatile KeyedBulkheadStrategy keyedBulkhead;
+	private volatile CircuitBreakerStrategy circuitBreaker;
+	private volatile long rateLimitMaxWaitNanos;
+	private final PolicyStats stats;
+	private final BulkheadRateLimitException rateLimitRejection;
+	private final BulkheadRateLimitException bulkheadRejection;
+	private final BulkheadRateLimitException circuitBreakerRejection;
 
 	public LimiterContext(String name, BulkheadStrategy bulkhead, RateLimitStrategy rateLimit) {
+		this(name, bulkhead, rateLimit, null);
+	}
+
+	public LimiterContext(String name, BulkheadStrategy bulkhead, RateLimitStrategy rateLimit,
+						  KeyedRateLimitStrategy keyedRateLimit) {
+		this(name, bulkhead, rateLimit, keyedRateLimit, null);
+	}
+
+	/**
+	 * @param bulkheadConfig the bulkhead's configuration, sizing the queue of asynchronous calls
+	 */
+	public LimiterContext(String name, BulkheadStrategy bulkhead, RateLimitStrategy rateLimit,
+						  KeyedRateLimitStrategy keyedRateLimit, BulkheadRateLimitProperties.BulkheadConfig bulkheadConfig) {
 		this.name = name;
-		this.bulkhead = bulkhead;
 		this.rateLimit = rateLimit;
+		this.keyedRateLimit = keyedRateLimit;
+		this.stats = bulkheadConfig != null ? new PolicyStats(bulkheadConfig.getMaxTenants()) : new PolicyStats();
+		this.asyncBulkhead = new AsyncBulkhead(bulkhead, bulkheadConfig, stats);
+		this.rateLimitRejection = BulkheadRateLimitException.stackless("Rate limit exceeded for policy: " + name);
+		this.bulkheadRejection = BulkheadRateLimitException.stackless("Bulkhead limit exceeded for policy: " + name);
+		this.circuitBreakerRejection = BulkheadRateLimitException.stackless("Circuit breaker open for policy: " + name);
 	}
 
 	public String getName() {
@@ -23,10 +57,118 @@ public class LimiterContext {
 	}
 
 	public BulkheadStrategy getBulkhead() {
-		return bulkhead;
+		return asyncBulkhead.getBulkhead();
 	}
 
 	public RateLimitStrategy getRateLimit() {
 		return rateLimit;
 	}
+
+	/**
+	 * Per-key rate limiter, or null if the policy does not support keys
+	 */
+	public KeyedRateLimitStrategy getKeyedRateLimit() {
+		return keyedRateLimit;
+	}
+
+	/**
+	 * Concurrency cap per concurrency key, applied before the bulkhead, or null if the policy has none
+	 */
+	public KeyedBulkheadStrategy getKeyedBulkhead() {
+		return keyedBulkhead;
+	}
+
+	/**
+	 * Circuit breaker checked before the rate limit, or null if the policy has none
+	 */
+	public CircuitBreakerStrategy getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	/**
+	 * Longest a call waits for a reserved rate limit slot, 0 if calls over the limit are rejected right away
+	 */
+	public long getRateLimitMaxWaitNanos() {
+		return rateLimitMaxWaitNanos;
+	}
+
+	void setRateLimitMaxWaitNanos(long rateLimitMaxWaitNanos) {
+		this.rateLimitMaxWaitNanos = rateLimitMaxWaitNanos;
+	}
+
+	/**
+	 * Call statistics of the policy
+	 */
+	public PolicyStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Number of asynchronous calls parked waiting for a bulkhead permit
+	 */
+	public int getAsyncQueueSize() {
+		return asyncBulkhead.getQueueSize();
+	}
+
+	/**
+	 * Non-blocking front of the current bulkhead.
+	 * Calls release their permit through the front they acquired it from, so a replaced bulkhead
+	 * gets back every permit it handed out.
+	 */
+	AsyncBulkhead getAsyncBulkhead() {
+		return asyncBulkhead;
+	}
+
+	/**
+	 * Replaces the bulkhead; calls in flight keep releasing to the previous one
+	 * @return the previous bulkhead
+	 */
+	BulkheadStrategy replaceBulkhead(BulkheadStrategy bulkhead, BulkheadRateLimitProperties.BulkheadConfig config) {
+		AsyncBulkhead previous = asyncBulkhead;
+		asyncBulkhead = new AsyncBulkhead(bulkhead, config, stats);
+		return previous.getBulkhead();
+	}
+
+	void replaceRateLimit(RateLimitStrategy rateLimit) {
+		this.rateLimit = rateLimit;
+	}
+
+	void replaceKeyedRateLimit(KeyedRateLimitStrategy keyedRateLimit) {
+		this.keyedRateLimit = keyedRateLimit;
+	}
+
+	/**
+	 * Replaces the per-key cap; calls in flight keep releasing to the previous one
+	 */
+	void replaceKeyedBulkhead(KeyedBulkheadStrategy keyedBulkhead) {
+		this.keyedBulkhead = keyedBulkhead;
+	}
+
+	/**
+	 * Replaces the circuit breaker; calls in flight report their outcome to the previous one
+	 */
+	void replaceCircuitBreaker(CircuitBreakerStrategy circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	/**
+	 * Preallocated exception thrown when the rate limit rejects a call
+	 */
+	public BulkheadRateLimitException getRateLimitRejection() {
+		return rateLimitRejection;
+	}
+
+	/**
+	 * Preallocated exception thrown when the bulkhead rejects a call
+	 */
+	public BulkheadRateLimitException getBulkheadRejection() {
+		return bulkheadRejection;
+	}
+
+	/**
+	 * Preallocated exception thrown when the circuit breaker rejects a call
+	 */
+	public BulkheadRateLimitException getCircuitBreakerRejection() {
+		return circuitBreakerRejection;
+	}
 }
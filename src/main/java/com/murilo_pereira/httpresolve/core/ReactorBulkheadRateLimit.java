@@ -0,0 +1,225 @@
+package com.murilo_pereira.httpresolve.core;
+
+import com.murilo_pereira.httpresolve.strategy.CircuitBreakerStrategy;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Applies a policy to Reactor publishers, per subscription and without blocking
+ * <p>
+ * The circuit breaker is checked, the rate limit consumed and the bulkhead permit acquired when the
+ * publisher is subscribed to; the permit is held until its terminal signal or cancellation, which is
+ * also when the outcome is reported to the circuit breaker. When the bulkhead is full, the
+ * subscription waits in the policy's queue as a callback rather than on an event-loop thread.
+ * A subscription delayed by the rate limit (DELAY mode) is resumed by a timer once its reserved slot is reached.
+ * Only used when Reactor is on the classpath.
+ */
+public final class ReactorBulkheadRateLimit {
+	private final BulkheadRateLimitManager manager;
+
+	public ReactorBulkheadRateLimit(BulkheadRateLimitManager manager) {
+		this.manager = manager;
+	}
+
+	/**
+	 * Whether values of a type can be decorated
+	 */
+	public static boolean supports(Class<?> type) {
+		return Publisher.class.isAssignableFrom(type);
+	}
+
+	/**
+	 * Decorates a publisher returned by a protected method
+	 * @param policy the policy to apply
+	 * @param key the caller key owning its own rate limit state, or null to use the policy's shared one
+	 * @param publisher a {@link Mono}, {@link Flux} or other {@link Publisher}, or null
+	 * @return the decorated publisher, a {@link Mono} for a {@link Mono} and a {@link Flux} otherwise
+	 */
+	public Object decorate(BoundPolicy policy, String key, Object publisher) {
+		return decorate(policy, key, 1, publisher);
+	}
+
+	/**
+	 * Decorates a publisher whose subscriptions weigh {@code permits} calls
+	 * @see #decorate(BoundPolicy, String, Object)
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 */
+	public Object decorate(BoundPolicy policy, String key, int permits, Object publisher) {
+		return decorate(policy, key, null, null, permits, publisher);
+	}
+
+	/**
+	 * Decorates a publisher whose subscriptions are made on behalf of a tenant and counted against a concurrency
+	 * key. A FAIR_SHARE bulkhead shares its permits among the tenants of waiting subscriptions, and a policy with
+	 * {@code maxConcurrentCallsPerKey} caps the subscriptions of each concurrency key in flight.
+	 * @param tenant the tenant the subscriptions are made for, or null if they name none
+	 * @param concurrencyKey the key whose subscriptions in flight are capped, or null if they are not capped
+	 * @see #decorate(BoundPolicy, String, Object)
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 */
+	public Object decorate(BoundPolicy policy, String key, String tenant, String concurrencyKey, int permits,
+						   Object publisher) {
+		BulkheadRateLimitManager.checkPermits(permits);
+		if (publisher instanceof Mono<?> mono) {
+			return decorate(policy, key, tenant, concurrencyKey, permits, mono);
+		}
+		if (publisher instanceof Publisher<?> other) {
+			return decorate(policy, key, tenant, concurrencyKey, permits, Flux.from(other));
+		}
+		return publisher;
+	}
+
+	/**
+	 * Decorates the publisher of a protected method, calling the method only once a subscription is admitted.
+	 * Each subscription calls it again, so nothing runs before the circuit breaker, the rate limit and the
+	 * bulkhead admit it, nor when they reject it.
+	 * @param type the method's declared return type: a {@link Mono} for a {@link Mono}, a {@link Flux} otherwise
+	 * @param argument the argument passed to the invocation
+	 * @param invocation the method call returning the publisher
+	 * @return the decorated publisher
+	 * @see #decorate(BoundPolicy, String, String, String, int, Object)
+	 * @throws IllegalArgumentException if {@code permits} is lower than 1
+	 */
+	public <A> Object decorate(BoundPolicy policy, String key, String tenant, String concurrencyKey, int permits,
+							   Class<?> type, A argument, BulkheadRateLimitManager.Invocation<A, ?> invocation) {
+		BulkheadRateLimitManager.checkPermits(permits);
+		if (Mono.class.isAssignableFrom(type)) {
+			return decorate(policy, key, tenant, concurrencyKey, permits,
+					Mono.defer(() -> Mono.from(invoke(argument, invocation))));
+		}
+		return decorate(policy, key, tenant, concurrencyKey, permits, Flux.defer(() -> invoke(argument, invocation)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <A> Publisher<Object> invoke(A argument, BulkheadRateLimitManager.Invocation<A, ?> invocation) {
+		try {
+			return (Publisher<Object>) invocation.invoke(argument);
+		} catch (Throwable e) {
+			return Mono.error(e);
+		}
+	}
+
+	public <T> Mono<T> decorate(BoundPolicy policy, String key, Mono<T> source) {
+		return decorate(policy, key, 1, source);
+	}
+
+	public <T> Mono<T> decorate(BoundPolicy policy, String key, int permits, Mono<T> source) {
+		return decorate(policy, key, null, null, permits, source);
+	}
+
+	public <T> Mono<T> decorate(BoundPolicy policy, String key, String tenant, String concurrencyKey, int permits,
+								Mono<T> source) {
+		return Mono.defer(() -> {
+			CircuitBreakerStrategy breaker = policy.getLimiter().getCircuitBreaker();
+			long permission = breaker != null ? breaker.acquirePermission() : 0;
+			return Mono.usingWhen(admission(policy, breaker, permission, key, tenant, concurrencyKey, permits),
+					permit -> source,
+					permit -> Mono.fromRunnable(() -> release(permit, breaker, permission, null)),
+					(permit, error) -> Mono.fromRunnable(() -> {
+						policy.getStats().recordExecutionError();
+						release(permit, breaker, permission, error);
+					}),
+					permit -> Mono.fromRunnable(() -> release(permit, breaker, permission, null)));
+		});
+	}
+
+	public <T> Flux<T> decorate(BoundPolicy policy, String key, Flux<T> source) {
+		return decorate(policy, key, 1, source);
+	}
+
+	public <T> Flux<T> decorate(BoundPolicy policy, String key, int permits, Flux<T> source) {
+		return decorate(policy, key, null, null, permits, source);
+	}
+
+	public <T> Flux<T> decorate(BoundPolicy policy, String key, String tenant, String concurrencyKey, int permits,
+								Flux<T> source) {
+		return Flux.defer(() -> {
+			CircuitBreakerStrategy breaker = policy.getLimiter().getCircuitBreaker();
+			long permission = breaker != null ? breaker.acquirePermission() : 0;
+			return Flux.usingWhen(admission(policy, breaker, permission, key, tenant, concurrencyKey, permits),
+					permit -> source,
+					permit -> Mono.fromRunnable(() -> release(permit, breaker, permission, null)),
+					(permit, error) -> Mono.fromRunnable(() -> {
+						policy.getStats().recordExecutionError();
+						release(permit, breaker, permission, error);
+					}),
+					permit -> Mono.fromRunnable(() -> release(permit, breaker, permission, null)));
+		});
+	}
+
+	/**
+	 * Releases the permit of a subscription, reporting its outcome to the circuit breaker once.
+	 * A cancelled subscription counts as a success, and as a slow call if it ran long enough.
+	 */
+	private static void release(AsyncPermit permit, CircuitBreakerStrategy breaker, long permission, Throwable failure) {
+		long elapsed = permit.release();
+		if (breaker != null && elapsed >= 0) {
+			breaker.onResult(permission, failure, elapsed);
+		}
+	}
+
+	/**
+	 * Emits the subscription's permit once granted, or fails with the policy's rejection
+	 * @param permission the subscription's circuit breaker permission, taken when it was subscribed to
+	 */
+	private Mono<AsyncPermit> admission(BoundPolicy policy, CircuitBreakerStrategy breaker, long permission,
+										String key, String tenant, String concurrencyKey, int permits) {
+		return Mono.defer(() -> {
+			LimiterContext limiter = policy.getLimiter();
+			if (permission == CircuitBreakerStrategy.REJECTED) {
+				policy.getStats().recordCircuitBreakerRejected();
+				return Mono.error(limiter.getCircuitBreakerRejection());
+			}
+			long delay = manager.reserveRateLimit(policy, key, permits);
+			if (delay < 0) {
+				BulkheadRateLimitManager.releaseCircuitBreaker(breaker, permission);
+				return Mono.error(limiter.getRateLimitRejection());
+			}
+			if (delay > 0) {
+				return Mono.delay(Duration.ofNanos(delay))
+						.doOnCancel(() -> BulkheadRateLimitManager.releaseCircuitBreaker(breaker, permission))
+						.then(Mono.defer(() -> {
+							policy.getStats().recordRateLimitSuccess();
+							return bulkheadAdmission(policy, breaker, permission, tenant, concurrencyKey, permits);
+						}));
+			}
+			return bulkheadAdmission(policy, breaker, permission, tenant, concurrencyKey, permits);
+		});
+	}
+
+	/**
+	 * Acquires the bulkhead permit of a subscription admitted by the circuit breaker and the rate limit
+	 */
+	private Mono<AsyncPermit> bulkheadAdmission(BoundPolicy policy, CircuitBreakerStrategy breaker, long permission,
+												String tenant, String concurrencyKey, int permits) {
+		LimiterContext limiter = policy.getLimiter();
+		AsyncPermit permit = manager.acquireAsync(policy, tenant, concurrencyKey, permits);
+		if (permit == null) {
+			BulkheadRateLimitManager.releaseCircuitBreaker(breaker, permission);
+			return Mono.error(limiter.getBulkheadRejection());
+		}
+		if (permit.isGranted()) {
+			return Mono.just(permit);
+		}
+		return Mono.create(sink -> {
+			sink.onCancel(() -> {
+				// The call never ran, whether it was still queued or granted meanwhile
+				permit.abandon();
+				BulkheadRateLimitManager.releaseCircuitBreaker(breaker, permission);
+			});
+			permit.ready().whenComplete((ignored, error) -> {
+				if (error == null) {
+					sink.success(permit);
+				} else if (!(error instanceof CancellationException)) {
+					// Queue timeout or shed; a cancelled wait was abandoned by the subscriber itself
+					BulkheadRateLimitManager.releaseCircuitBreaker(breaker, permission);
+					sink.error(limiter.getBulkheadRejection());
+				}
+			});
+		});
+	}
+}
@@ -0,0 +1,84 @@
+package com.murilo_pereira.httpresolve.core.filter;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.core.BoundPolicy;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
+import com.murilo_pereira.httpresolve.strategy.ThreadPoolBulkheadStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+
+import java.util.List;
+
+/**
+ * URL mappings of a filter with their policies resolved once. A mapping falling back to the default
+ * policy is bound again when the policy it names is created at runtime.
+ * Policies with a THREAD_POOL bulkhead are refused: a filter must hand the request down the chain on the
+ * thread serving it.
+ */
+final class BoundMappings {
+	private static final Logger log = LoggerFactory.getLogger(BoundMappings.class);
+
+	private final BulkheadRateLimitManager manager;
+	private final List<BulkheadRateLimitProperties.FilterMapping> mappings;
+	private volatile PathPatternMatcher<BoundPolicy> matcher;
+
+	BoundMappings(BulkheadRateLimitManager manager, List<BulkheadRateLimitProperties.FilterMapping> mappings) {
+		for (BulkheadRateLimitProperties.FilterMapping mapping : mappings) {
+			if (mapping.getPattern() == null || mapping.getPolicy() == null) {
+				throw new IllegalArgumentException("Filter mapping requires a pattern and a policy");
+			}
+		}
+		this.manager = manager;
+		this.mappings = List.copyOf(mappings);
+		this.matcher = bind();
+		manager.getRegistry().addPolicyListener(new BulkheadRateLimitRegistry.PolicyListener() {
+			@Override
+			public void policyCreated(String name) {
+				if (BoundMappings.this.mappings.stream().anyMatch(mapping -> name.equals(mapping.getPolicy()))) {
+					try {
+						matcher = bind();
+					} catch (IllegalArgumentException e) {
+						log.warn("Filter mappings of policy {} keep their previous binding: {}", name, e.getMessage());
+					}
+				}
+			}
+		});
+	}
+
+	private PathPatternMatcher<BoundPolicy> bind() {
+		PathPatternMatcher<BoundPolicy> matcher = new PathPatternMatcher<>();
+		for (BulkheadRateLimitProperties.FilterMapping mapping : mappings) {
+			BoundPolicy policy = manager.bind(mapping.getPolicy(), mapping.isFallbackToDefault());
+			if (policy.getLimiter().getBulkhead() instanceof ThreadPoolBulkheadStrategy) {
+				throw new IllegalArgumentException("THREAD_POOL bulkhead is not supported by filter mappings, policy: "
+						+ policy.getName());
+			}
+			matcher.add(mapping.getPattern(), mapping.getMethods(), policy.withCriticality(mapping.getCriticality()));
+		}
+		return matcher;
+	}
+
+	/**
+	 * Policy of the mapping whose pattern matches a request most specifically, or null if none matches.
+	 * Where patterns overlap, a literal segment wins over {@code *} or {@code {name}}, which wins over
+	 * {@code **}, segment by segment from the left; a mapping naming the request's method wins over one
+	 * matching all methods.
+	 * @param path the path within the application, as parsed by Spring: matched on its decoded segments
+	 * without their {@code ;} parameters, as handler mappings match it
+	 */
+	BoundPolicy match(String method, PathContainer path) {
+		StringBuilder lookupPath = new StringBuilder(path.value().length());
+		for (PathContainer.Element element : path.elements()) {
+			if (element instanceof PathContainer.PathSegment segment) {
+				lookupPath.append('/').append(segment.valueToMatch());
+			}
+		}
+		return matcher.match(method, lookupPath.toString());
+	}
+
+	boolean isEmpty() {
+		return mappings.isEmpty();
+	}
+}
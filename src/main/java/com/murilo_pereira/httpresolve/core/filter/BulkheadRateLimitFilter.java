@@ -0,0 +1,110 @@
+package com.murilo_pereira.httpresolve.core.filter;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.core.BoundPolicy;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
+import com.murilo_pereira.httpresolve.strategy.ThreadPoolBulkheadStrategy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Servlet filter applying bulkhead and rate limit by URL pattern, before the request
+ * reaches handler mapping, argument binding or body parsing.
+ * Rejections answer 429 (rate limit, with {@code Retry-After}) or 503 (bulkhead) directly.
+ */
+public class BulkheadRateLimitFilter extends OncePerRequestFilter {
+	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitFilter.class);
+	private static final BulkheadRateLimitManager.Invocation<Dispatch, Object> DISPATCH = dispatch -> {
+		dispatch.dispatched = true;
+		dispatch.chain.doFilter(dispatch.request, dispatch.response);
+		return null;
+	};
+
+	private final BulkheadRateLimitManager manager;
+	private final BoundMappings boundMappings;
+
+	public BulkheadRateLimitFilter(BulkheadRateLimitManager manager,
+								   List<BulkheadRateLimitProperties.FilterMapping> mappings) {
+		this.manager = manager;
+		this.boundMappings = new BoundMappings(manager, mappings);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return boundMappings.isEmpty();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		RequestPath path = RequestPath.parse(request.getRequestURI(), request.getContextPath());
+		BoundPolicy policy = boundMappings.match(request.getMethod(), path.pathWithinApplication());
+		if (policy == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		if (policy.getLimiter().getBulkhead() instanceof ThreadPoolBulkheadStrategy) {
+			// Reconfigured since it was bound: the chain must not run on a pool thread
+			throw new IllegalStateException(
+					"THREAD_POOL bulkhead is not supported by filter mappings, policy: " + policy.getName());
+		}
+
+		Dispatch dispatch = new Dispatch(request, response, chain);
+		try {
+			manager.execute(policy, null, dispatch, DISPATCH);
+		} catch (BulkheadRateLimitException e) {
+			if (dispatch.dispatched) {
+				// Rejected further down the chain, or timed out while running
+				throw e;
+			}
+			reject(policy, e, request, response);
+		} catch (IOException | ServletException | RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new ServletException(e);
+		}
+	}
+
+	private void reject(BoundPolicy policy, BulkheadRateLimitException e,
+						HttpServletRequest request, HttpServletResponse response) throws IOException {
+		if (log.isDebugEnabled()) {
+			log.debug("Bulkhead/Rate-limit [{}] rejected request: {} {}",
+					policy.getName(), request.getMethod(), request.getRequestURI());
+		}
+
+		if (Rejections.isRateLimited(policy, e)) {
+			response.setStatus(Rejections.TOO_MANY_REQUESTS);
+			response.setHeader("Retry-After", Rejections.retryAfterSeconds(policy));
+		} else {
+			response.setStatus(Rejections.SERVICE_UNAVAILABLE);
+		}
+		response.setContentType("text/plain;charset=UTF-8");
+		response.getWriter().write(e.getMessage());
+	}
+
+	/**
+	 * The request being filtered, and whether it was handed down the chain
+	 */
+	private static final class Dispatch {
+		private final HttpServletRequest request;
+		private final HttpServletResponse response;
+		private final FilterChain chain;
+		private boolean dispatched;
+
+		private Dispatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain) {
+			this.request = request;
+			this.response = response;
+			this.chain = chain;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.murilo_pereira.httpresolve.core.filter;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.core.BoundPolicy;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.ReactorBulkheadRateLimit;
+import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebFlux filter applying bulkhead and rate limit by URL pattern, before handler dispatch.
+ * The bulkhead permit is held until the exchange completes, and queued requests wait without
+ * blocking the event loop. Rejections answer 429 (rate limit, with {@code Retry-After}) or 503 (bulkhead).
+ */
+public class BulkheadRateLimitWebFilter implements WebFilter, Ordered {
+	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitWebFilter.class);
+
+	private final ReactorBulkheadRateLimit reactor;
+	private final BoundMappings boundMappings;
+	private final int order;
+
+	public BulkheadRateLimitWebFilter(BulkheadRateLimitManager manager,
+									  List<BulkheadRateLimitProperties.FilterMapping> mappings, int order) {
+		this.reactor = new ReactorBulkheadRateLimit(manager);
+		this.order = order;
+		this.boundMappings = new BoundMappings(manager, mappings);
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		BoundPolicy policy = boundMappings.match(request.getMethod().name(), request.getPath().pathWithinApplication());
+		if (policy == null) {
+			return chain.filter(exchange);
+		}
+
+		AtomicBoolean dispatched = new AtomicBoolean();
+		return reactor.decorate(policy, null, Mono.defer(() -> {
+					dispatched.set(true);
+					return chain.filter(exchange);
+				}))
+				.onErrorResume(BulkheadRateLimitException.class, e -> dispatched.get()
+						// Rejected further down the chain
+						? Mono.error(e)
+						: reject(policy, e, exchange));
+	}
+
+	private Mono<Void> reject(BoundPolicy policy, BulkheadRateLimitException e, ServerWebExchange exchange) {
+		if (log.isDebugEnabled()) {
+			log.debug("Bulkhead/Rate-limit [{}] rejected request: {} {}",
+					policy.getName(), exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+		}
+
+		ServerHttpResponse response = exchange.getResponse();
+		if (Rejections.isRateLimited(policy, e)) {
+			response.setStatusCode(HttpStatusCode.valueOf(Rejections.TOO_MANY_REQUESTS));
+			response.getHeaders().set("Retry-After", Rejections.retryAfterSeconds(policy));
+		} else {
+			response.setStatusCode(HttpStatusCode.valueOf(Rejections.SERVICE_UNAVAILABLE));
+		}
+		response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+		DataBuffer body = response.bufferFactory().wrap(e.getMessage().getBytes(StandardCharsets.UTF_8));
+		return response.writeWith(Mono.just(body));
+	}
+
+	@Override
+	public int getOrder() {
+		return order;
+	}
+}
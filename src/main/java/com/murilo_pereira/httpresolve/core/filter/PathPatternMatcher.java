@@ -0,0 +1,149 @@
+package com.murilo_pereira.httpresolve.core.filter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Matches request paths against URL patterns compiled into a segment trie, so a lookup
+ * walks the path once instead of testing every pattern in turn.
+ * Patterns are made of literal segments, {@code *} or {@code {name}} for exactly one segment
+ * and {@code **} for any number of segments. Literal segments take precedence over
+ * single-segment wildcards, which take precedence over {@code **}.
+ * @param <T> the value mapped to each pattern
+ */
+public final class PathPatternMatcher<T> {
+	private final Node<T> root = new Node<>();
+	private boolean empty = true;
+
+	/**
+	 * Adds a pattern
+	 * @param pattern the URL pattern
+	 * @param methods the HTTP methods matched, or empty to match all
+	 * @param value the value returned on match
+	 * @throws IllegalArgumentException if the pattern and method are already mapped
+	 */
+	public void add(String pattern, Collection<String> methods, T value) {
+		Node<T> node = root;
+		for (String segment : pattern.split("/")) {
+			if (segment.isEmpty()) {
+				continue;
+			}
+			if ("**".equals(segment)) {
+				if (node.multi == null) {
+					node.multi = new Node<>();
+				}
+				node = node.multi;
+			} else if ("*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}"))) {
+				if (node.single == null) {
+					node.single = new Node<>();
+				}
+				node = node.single;
+			} else {
+				node = node.literals.computeIfAbsent(segment, s -> new Node<>());
+			}
+		}
+
+		if (methods == null || methods.isEmpty()) {
+			if (node.any != null) {
+				throw new IllegalArgumentException("Duplicate filter mapping for pattern: " + pattern);
+			}
+			node.any = value;
+		} else {
+			for (String method : methods) {
+				if (node.byMethod.putIfAbsent(method.toUpperCase(Locale.ROOT), value) != null) {
+					throw new IllegalArgumentException("Duplicate filter mapping for pattern: " + method + " " + pattern);
+				}
+			}
+		}
+		empty = false;
+	}
+
+	/**
+	 * Finds the value of the most specific pattern matching a request
+	 * @param method the HTTP method
+	 * @param path the request path, without context path nor query string
+	 * @return the matched value, or null if no pattern matches
+	 */
+	public T match(String method, String path) {
+		if (empty) {
+			return null;
+		}
+		return match(root, path, skipSlashes(path, 0), method);
+	}
+
+	public boolean isEmpty() {
+		return empty;
+	}
+
+	private T match(Node<T> node, String path, int start, String method) {
+		if (start == path.length()) {
+			T value = node.valueFor(method);
+			if (value == null && node.multi != null) {
+				// A trailing ** also matches zero segments
+				value = match(node.multi, path, start, method);
+			}
+			return value;
+		}
+
+		int end = path.indexOf('/', start);
+		if (end < 0) {
+			end = path.length();
+		}
+		int next = skipSlashes(path, end);
+
+		if (!node.literals.isEmpty()) {
+			Node<T> literal = node.literals.get(path.substring(start, end));
+			if (literal != null) {
+				T value = match(literal, path, next, method);
+				if (value != null) {
+					return value;
+				}
+			}
+		}
+		if (node.single != null) {
+			T value = match(node.single, path, next, method);
+			if (value != null) {
+				return value;
+			}
+		}
+		if (node.multi != null) {
+			// ** consumes zero or more segments, shortest first
+			for (int position = start; ; position = next) {
+				T value = match(node.multi, path, position, method);
+				if (value != null || position == path.length()) {
+					return value;
+				}
+				end = path.indexOf('/', position);
+				next = end < 0 ? path.length() : skipSlashes(path, end);
+			}
+		}
+		return null;
+	}
+
+	private static int skipSlashes(String path, int position) {
+		while (position < path.length() && path.charAt(position) == '/') {
+			position++;
+		}
+		return position;
+	}
+
+	private static final class Node<T> {
+		private final Map<String, Node<T>> literals = new HashMap<>();
+		private final Map<String, T> byMethod = new HashMap<>();
+		private Node<T> single;
+		private Node<T> multi;
+		private T any;
+
+		private T valueFor(String method) {
+			if (!byMethod.isEmpty()) {
+				T value = byMethod.get(method);
+				if (value != null) {
+					return value;
+				}
+			}
+			return any;
+		}
+	}
+}
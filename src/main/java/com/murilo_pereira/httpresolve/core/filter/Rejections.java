@@ -0,0 +1,30 @@
+package com.murilo_pereira.httpresolve.core.filter;
+
+import com.murilo_pereira.httpresolve.core.BoundPolicy;
+import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
+
+/**
+ * HTTP answer to a rejected request, shared by the servlet and reactive filters
+ */
+final class Rejections {
+	static final int TOO_MANY_REQUESTS = 429;
+	static final int SERVICE_UNAVAILABLE = 503;
+
+	private Rejections() {
+	}
+
+	/**
+	 * Whether the rejection comes from the rate limit rather than the bulkhead
+	 */
+	static boolean isRateLimited(BoundPolicy policy, BulkheadRateLimitException rejection) {
+		return rejection == policy.getLimiter().getRateLimitRejection();
+	}
+
+	/**
+	 * Seconds until the policy's rate limit grants a permission again, for the {@code Retry-After} header
+	 */
+	static String retryAfterSeconds(BoundPolicy policy) {
+		long nanos = policy.getLimiter().getRateLimit().getMetrics().getNanosToNextPermit();
+		return Long.toString(Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L));
+	}
+}
@@ -2,6 +2,8 @@ package com.murilo_pereira.httpresolve.core.interceptor;
 
 import com.murilo_pereira.httpresolve.annotation.BulkheadRateLimit;
 import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
+import com.murilo_pereira.httpresolve.core.ReactorBulkheadRateLimit;
 import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -12,8 +14,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AOP Aspect to intercept methods annotated with @BulkheadRateLimit
@@ -23,42 +30,107 @@ import java.lang.reflect.Method;
 @Order(1) // High precedence to ensure it runs before other aspects
 public class BulkheadRateLimitAspect {
 	private static final Logger log = LoggerFactory.getLogger(BulkheadRateLimitAspect.class);
+	private static final BulkheadRateLimitManager.Invocation<ProceedingJoinPoint, Object> PROCEED =
+			ProceedingJoinPoint::proceed;
+	@SuppressWarnings("unchecked")
+	private static final BulkheadRateLimitManager.Invocation<ProceedingJoinPoint, CompletionStage<Object>> PROCEED_ASYNC =
+			joinPoint -> (CompletionStage<Object>) joinPoint.proceed();
 
 	private final BulkheadRateLimitManager manager;
+	private final ReactorBulkheadRateLimit reactor;
+	private final KeyExpressionResolver keyResolver = new KeyExpressionResolver();
+	private final Map<Method, InvocationPlan> plans = new ConcurrentHashMap<>();
 
 	@Autowired
 	public BulkheadRateLimitAspect(BulkheadRateLimitManager manager) {
 		this.manager = manager;
+		this.reactor = ClassUtils.isPresent("reactor.core.publisher.Mono", getClass().getClassLoader())
+				? new ReactorBulkheadRateLimit(manager)
+				: null;
+		// Methods naming a policy created at runtime bind it, rather than the default they fell back to
+		manager.getRegistry().addPolicyListener(new BulkheadRateLimitRegistry.PolicyListener() {
+			@Override
+			public void policyCreated(String name) {
+				plans.values().removeIf(plan -> plan.getPolicy().getName().equals(name));
+			}
+		});
 	}
 
 	@Around("@annotation(com.murilo_pereira.httpresolve.annotation.BulkheadRateLimit)")
 	public Object applyBulkheadRateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
-		// Get the method being called
-		MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-		Method method = signature.getMethod();
+		// Get the method being called and its plan
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		InvocationPlan plan = plans.get(method);
+		if (plan == null) {
+			plan = plans.computeIfAbsent(method, this::createPlan);
+		}
 
-		// Get the annotation
-		BulkheadRateLimit annotation = method.getAnnotation(BulkheadRateLimit.class);
-		String policyName = annotation.value();
-		boolean fallbackToDefault = annotation.fallbackToDefault();
+		// Reactive methods run outside of any servlet request under WebFlux
+		boolean reactive = plan.getKind() == InvocationPlan.Kind.PUBLISHER;
+		String key = plan.getKeyExpression() == null
+				? null
+				: keyResolver.resolve(plan.getKeyExpression(), method, joinPoint.getArgs(), reactive);
+		int cost = plan.getCostExpression() == null
+				? plan.getCost()
+				: keyResolver.resolveCost(plan.getCostExpression(), method, joinPoint.getArgs(), reactive);
+		String concurrencyKey = plan.getConcurrencyKeyExpression() == null
+				? null
+				: keyResolver.resolve(plan.getConcurrencyKeyExpression(), method, joinPoint.getArgs(), reactive);
+		String tenant = plan.getTenantExpression() == null
+				? null
+				: keyResolver.resolve(plan.getTenantExpression(), method, joinPoint.getArgs(), reactive);
 
-		// Create context for logging
-		String methodIdentifier = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+		// Asynchronous results hold the bulkhead until they complete, and report rejections through their result
+		if (plan.getKind() == InvocationPlan.Kind.COMPLETION_STAGE) {
+			return manager.executeAsync(plan.getPolicy(), key, tenant, concurrencyKey, cost, joinPoint, PROCEED_ASYNC);
+		}
+		if (plan.getKind() == InvocationPlan.Kind.PUBLISHER) {
+			// The method itself only runs once a subscription is admitted
+			return reactor.decorate(plan.getPolicy(), key, tenant, concurrencyKey, cost, method.getReturnType(),
+					joinPoint, PROCEED);
+		}
 
 		try {
-			log.debug("Applying bulkhead/rate-limit [{}] to method: {}", policyName, methodIdentifier);
-
-			// Execute with bulkhead and rate limit
-			return manager.execute(policyName, fallbackToDefault, () -> {
-				try {
-					return joinPoint.proceed();
-				} catch (Throwable e) {
-					throw new RuntimeException(e);
-				}
-			});
+			// Execute with bulkhead and rate limit; the method's own exceptions pass through unwrapped
+			return manager.execute(plan.getPolicy(), key, tenant, concurrencyKey, cost, joinPoint, PROCEED);
 		} catch (BulkheadRateLimitException e) {
-			log.warn("Bulkhead/Rate-limit [{}] rejected execution of method: {}", policyName, methodIdentifier);
+			if (log.isDebugEnabled()) {
+				log.debug("Bulkhead/Rate-limit [{}] rejected execution of method: {}",
+						plan.getPolicy().getName(), plan.getMethodIdentifier());
+			}
 			throw e;
 		}
 	}
+
+	/**
+	 * Resolves the annotation, policy and key expression of a method, once
+	 */
+	private InvocationPlan createPlan(Method method) {
+		BulkheadRateLimit annotation = method.getAnnotation(BulkheadRateLimit.class);
+		String methodIdentifier = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+		log.debug("Applying bulkhead/rate-limit [{}] to method: {}", annotation.value(), methodIdentifier);
+		if (annotation.cost() < 1) {
+			throw new IllegalArgumentException("@BulkheadRateLimit cost must be at least 1 on " + methodIdentifier);
+		}
+
+		return new InvocationPlan(
+				manager.bind(annotation.value(), annotation.fallbackToDefault()).withCriticality(annotation.criticality()),
+				annotation.key().isEmpty() ? null : keyResolver.parse(annotation.key()),
+				annotation.cost(),
+				annotation.costExpression().isEmpty() ? null : keyResolver.parse(annotation.costExpression()),
+				annotation.tenant().isEmpty() ? null : keyResolver.parse(annotation.tenant()),
+				annotation.concurrencyKey().isEmpty() ? null : keyResolver.parse(annotation.concurrencyKey()),
+				methodIdentifier,
+				kindOf(method.getReturnType()));
+	}
+
+	private InvocationPlan.Kind kindOf(Class<?> returnType) {
+		if (CompletionStage.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(CompletableFuture.class)) {
+			return InvocationPlan.Kind.COMPLETION_STAGE;
+		}
+		if (reactor != null && ReactorBulkheadRateLimit.supports(returnType)) {
+			return InvocationPlan.Kind.PUBLISHER;
+		}
+		return InvocationPlan.Kind.SYNC;
+	}
 }
@@ -0,0 +1,89 @@
+package com.murilo_pereira.httpresolve.core.interceptor;
+
+import com.murilo_pereira.httpresolve.core.BoundPolicy;
+import org.springframework.expression.Expression;
+
+/**
+ * Everything the aspect needs to protect an annotated method, resolved once per {@link java.lang.reflect.Method}
+ */
+final class InvocationPlan {
+	/**
+	 * How the method delivers its result, deciding when the bulkhead permit is released
+	 */
+	enum Kind {
+		/** Returns its result directly */
+		SYNC,
+		/** Returns a {@link java.util.concurrent.CompletionStage} */
+		COMPLETION_STAGE,
+		/** Returns a Reactive Streams publisher */
+		PUBLISHER
+	}
+
+	private final BoundPolicy policy;
+	private final Expression keyExpression;
+	private final int cost;
+	private final Expression costExpression;
+	private final Expression tenantExpression;
+	private final Expression concurrencyKeyExpression;
+	private final String methodIdentifier;
+	private final Kind kind;
+
+	InvocationPlan(BoundPolicy policy, Expression keyExpression, int cost, Expression costExpression,
+				   Expression tenantExpression, Expression concurrencyKeyExpression, String methodIdentifier, Kind kind) {
+		this.policy = policy;
+		this.keyExpression = keyExpression;
+		this.cost = cost;
+		this.costExpression = costExpression;
+		this.tenantExpression = tenantExpression;
+		this.concurrencyKeyExpression = concurrencyKeyExpression;
+		this.methodIdentifier = methodIdentifier;
+		this.kind = kind;
+	}
+
+	BoundPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Parsed key expression, or null when all callers share the policy's rate limit
+	 */
+	Expression getKeyExpression() {
+		return keyExpression;
+	}
+
+	/**
+	 * Static cost of a call, used when there is no cost expression
+	 */
+	int getCost() {
+		return cost;
+	}
+
+	/**
+	 * Parsed cost expression, or null when every call costs {@link #getCost()}
+	 */
+	Expression getCostExpression() {
+		return costExpression;
+	}
+
+	/**
+	 * Parsed tenant expression, or null when calls name no tenant
+	 */
+	Expression getTenantExpression() {
+		return tenantExpression;
+	}
+
+	/**
+	 * Parsed concurrency key expression, or null when calls are not capped per key
+	 */
+	Expression getConcurrencyKeyExpression() {
+		return concurrencyKeyExpression;
+	}
+
+	String getMethodIdentifier() {
+		return methodIdentifier;
+	}
+
+	Kind getKind() {
+		return kind;
+	}
+}
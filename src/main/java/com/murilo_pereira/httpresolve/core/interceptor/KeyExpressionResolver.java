@@ -0,0 +1,83 @@
+package com.murilo_pereira.httpresolve.core.interceptor;
+
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+
+/**
+ * Parses and evaluates rate limit key and cost expressions
+ */
+public class KeyExpressionResolver {
+	private final ExpressionParser parser = new SpelExpressionParser();
+	private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+	/**
+	 * Parses a key expression; the result is thread-safe and meant to be cached per method
+	 * @param expression the SpEL key expression declared on the method
+	 * @return the parsed expression
+	 */
+	public Expression parse(String expression) {
+		return parser.parseExpression(expression);
+	}
+
+	/**
+	 * Resolves the key for an invocation
+	 * @param expression the parsed key expression
+	 * @param method the invoked method
+	 * @param args the invocation arguments
+	 * @return the key, or null if the expression evaluates to null
+	 */
+	public String resolve(Expression expression, Method method, Object[] args) {
+		return resolve(expression, method, args, false);
+	}
+
+	/**
+	 * Resolves the key for an invocation, possibly of a reactive method
+	 * @param reactive whether the method returns a publisher: its expressions may then only use the
+	 * current request's variables when called within a servlet request
+	 * @see #resolve(Expression, Method, Object[])
+	 * @throws IllegalStateException if a reactive method's expression uses a request variable outside
+	 * of a servlet request
+	 */
+	public String resolve(Expression expression, Method method, Object[] args, boolean reactive) {
+		Object value = evaluate(expression, method, args, reactive);
+		return value != null ? value.toString() : null;
+	}
+
+	/**
+	 * Resolves the cost of an invocation
+	 * @param expression the parsed cost expression
+	 * @param method the invoked method
+	 * @param args the invocation arguments
+	 * @return the cost, at least 1
+	 * @throws IllegalArgumentException if the expression does not evaluate to a number
+	 */
+	public int resolveCost(Expression expression, Method method, Object[] args) {
+		return resolveCost(expression, method, args, false);
+	}
+
+	/**
+	 * Resolves the cost of an invocation, possibly of a reactive method
+	 * @see #resolveCost(Expression, Method, Object[])
+	 * @see #resolve(Expression, Method, Object[], boolean)
+	 */
+	public int resolveCost(Expression expression, Method method, Object[] args, boolean reactive) {
+		Object value = evaluate(expression, method, args, reactive);
+		if (!(value instanceof Number number)) {
+			throw new IllegalArgumentException("Cost expression '" + expression.getExpressionString()
+					+ "' must evaluate to a number, got: " + value);
+		}
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, number.longValue()));
+	}
+
+	private Object evaluate(Expression expression, Method method, Object[] args, boolean reactive) {
+		MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+				new KeyExpressionRoot(method, args, reactive), method, args, parameterNameDiscoverer);
+		return expression.getValue(context);
+	}
+}
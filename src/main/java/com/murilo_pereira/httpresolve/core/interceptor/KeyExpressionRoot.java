@@ -0,0 +1,122 @@
+package com.murilo_pereira.httpresolve.core.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.security.Principal;
+
+/**
+ * Root object of {@link com.murilo_pereira.httpresolve.annotation.BulkheadRateLimit#key()} expressions.
+ * <p>
+ * Besides method arguments ({@code #name}, {@code #p0}, {@code #a0}), expressions can refer to
+ * {@code ip}, {@code header('X-Tenant')}, {@code principal} and {@code request} of the current
+ * servlet request, when running inside one.
+ * <p>
+ * Reactive methods have no such request under WebFlux, where the request lives in the subscriber's
+ * context rather than on the calling thread: there these variables fail instead of silently resolving
+ * to null, and the value should be passed to the method as an argument.
+ */
+public class KeyExpressionRoot {
+	private static final boolean SERVLET_PRESENT = ClassUtils.isPresent(
+			"org.springframework.web.context.request.RequestContextHolder", KeyExpressionRoot.class.getClassLoader())
+			&& ClassUtils.isPresent("jakarta.servlet.http.HttpServletRequest", KeyExpressionRoot.class.getClassLoader());
+
+	private final Method method;
+	private final Object[] args;
+	private final boolean reactive;
+
+	public KeyExpressionRoot(Method method, Object[] args) {
+		this(method, args, false);
+	}
+
+	/**
+	 * @param reactive whether the method returns a publisher, whose request variables must come from a servlet request
+	 */
+	public KeyExpressionRoot(Method method, Object[] args, boolean reactive) {
+		this.method = method;
+		this.args = args;
+		this.reactive = reactive;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public Object[] getArgs() {
+		return args;
+	}
+
+	/**
+	 * Current servlet request, or null outside of a request
+	 */
+	public Object getRequest() {
+		return currentRequest("request");
+	}
+
+	/**
+	 * Remote address of the current request
+	 */
+	public String getIp() {
+		return currentRequest("ip") != null ? ServletRequestAccessor.remoteAddress() : null;
+	}
+
+	/**
+	 * Authenticated principal of the current request
+	 */
+	public Principal getPrincipal() {
+		return currentRequest("principal") != null ? ServletRequestAccessor.principal() : null;
+	}
+
+	/**
+	 * Header value of the current request
+	 */
+	public String header(String name) {
+		return currentRequest("header") != null ? ServletRequestAccessor.header(name) : null;
+	}
+
+	/**
+	 * Current servlet request, or null outside of a request
+	 * @throws IllegalStateException if a reactive method uses a request variable outside of a servlet request
+	 */
+	private Object currentRequest(String variable) {
+		Object request = SERVLET_PRESENT ? ServletRequestAccessor.currentRequest() : null;
+		if (request == null && reactive) {
+			throw new IllegalStateException("Key expression variable '" + variable + "' of " + method.getName()
+					+ " needs a servlet request, and reactive methods get none under WebFlux;"
+					+ " pass the value as a method argument instead");
+		}
+		return request;
+	}
+
+	/**
+	 * Isolates servlet types so this class loads without spring-web on the classpath
+	 */
+	private static final class ServletRequestAccessor {
+		static HttpServletRequest currentRequest() {
+			RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+			if (attributes instanceof ServletRequestAttributes servletAttributes) {
+				return servletAttributes.getRequest();
+			}
+			return null;
+		}
+
+		static String remoteAddress() {
+			HttpServletRequest request = currentRequest();
+			return request != null ? request.getRemoteAddr() : null;
+		}
+
+		static Principal principal() {
+			HttpServletRequest request = currentRequest();
+			return request != null ? request.getUserPrincipal() : null;
+		}
+
+		static String header(String name) {
+			HttpServletRequest request = currentRequest();
+			return request != null ? request.getHeader(name) : null;
+		}
+	}
+}
@@ -12,4 +12,18 @@ public class BulkheadException extends RuntimeException {
 	public BulkheadException(String message, Throwable cause) {
 		super(message, cause);
 	}
+
+	protected BulkheadException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
+	/**
+	 * Creates an exception without stack trace nor suppressed exceptions, meant to be
+	 * allocated once and shared by every call it fails
+	 * @param message the rejection message
+	 * @return the reusable exception
+	 */
+	public static BulkheadException stackless(String message) {
+		return new BulkheadException(message, false);
+	}
 }
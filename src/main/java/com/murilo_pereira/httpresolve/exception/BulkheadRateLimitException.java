@@ -11,4 +11,18 @@ public class BulkheadRateLimitException extends RuntimeException {
 	public BulkheadRateLimitException(String message, Throwable cause) {
 		super(message, cause);
 	}
+
+	protected BulkheadRateLimitException(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
+	/**
+	 * Creates an exception without stack trace nor suppressed exceptions, meant to be
+	 * allocated once and thrown on every rejection
+	 * @param message the rejection message
+	 * @return the reusable exception
+	 */
+	public static BulkheadRateLimitException stackless(String message) {
+		return new BulkheadRateLimitException(message, false);
+	}
 }
@@ -0,0 +1,201 @@
+package com.murilo_pereira.httpresolve.metrics;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
+import com.murilo_pereira.httpresolve.core.LimiterContext;
+import com.murilo_pereira.httpresolve.strategy.BulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.CircuitBreakerStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedBulkheadStrategy;
+import com.murilo_pereira.httpresolve.strategy.KeyedRateLimitStrategy;
+import com.murilo_pereira.httpresolve.strategy.RateLimitStrategy;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint ({@code /actuator/bulkheadratelimit}) returning the bulkhead, rate limit,
+ * counters and latency percentiles of every policy in a single response, so dashboards need
+ * one request per refresh instead of one per metric and policy.
+ * Each strategy is read once per policy, so the values of a policy are consistent with each other.
+ * <p>
+ * A write operation ({@code POST /actuator/bulkheadratelimit/{name}}) changes the limits of a policy
+ * at runtime, see {@link BulkheadRateLimitRegistry#reconfigure(String, BulkheadRateLimitProperties.PolicyConfig)}.
+ */
+@Endpoint(id = "bulkheadratelimit")
+public class BulkheadRateLimitEndpoint {
+	private final BulkheadRateLimitRegistry registry;
+
+	public BulkheadRateLimitEndpoint(BulkheadRateLimitRegistry registry) {
+		this.registry = registry;
+	}
+
+	@ReadOperation
+	public Map<String, Object> snapshot() {
+		Map<String, Object> policies = new LinkedHashMap<>();
+		for (String name : new TreeSet<>(registry.getPolicyNames())) {
+			policies.put(name, snapshot(registry.getLimiter(name)));
+		}
+
+		Map<String, Object> snapshot = new LinkedHashMap<>();
+		snapshot.put("timestamp", System.currentTimeMillis());
+		snapshot.put("policies", policies);
+		return snapshot;
+	}
+
+	@ReadOperation
+	public Map<String, Object> policy(@Selector String name) {
+		return snapshot(registry.getLimiter(name));
+	}
+
+	/**
+	 * Changes the limits of a policy, creating it if it does not exist. Omitted parameters keep their
+	 * current value; durations accept the formats of the configuration properties ({@code 500ms}, {@code PT1S}...).
+	 * @return the state of the policy after the change
+	 */
+	@WriteOperation
+	public Map<String, Object> reconfigure(@Selector String name,
+										   @Nullable String bulkheadType,
+										   @Nullable Integer maxConcurrentCalls,
+										   @Nullable Integer maxConcurrentCallsPerKey,
+										   @Nullable Integer maxQueueSize,
+										   @Nullable String queueTimeout,
+										   @Nullable String queueDiscipline,
+										   @Nullable String strategy,
+										   @Nullable Integer limit,
+										   @Nullable String window,
+										   @Nullable Integer burstCapacity,
+										   @Nullable String mode,
+										   @Nullable String maxWait) {
+		BulkheadRateLimitProperties.PolicyConfig config = registry.getPolicyConfig(name);
+		BulkheadRateLimitProperties.BulkheadConfig bulkhead = config.getBulkhead();
+		if (bulkheadType != null) {
+			bulkhead.setType(bulkheadType);
+		}
+		if (maxConcurrentCalls != null) {
+			bulkhead.setMaxConcurrentCalls(maxConcurrentCalls);
+		}
+		if (maxConcurrentCallsPerKey != null) {
+			bulkhead.setMaxConcurrentCallsPerKey(maxConcurrentCallsPerKey);
+		}
+		if (maxQueueSize != null) {
+			bulkhead.setMaxQueueSize(maxQueueSize);
+		}
+		if (queueTimeout != null) {
+			bulkhead.setQueueTimeout(DurationStyle.detectAndParse(queueTimeout));
+		}
+		if (queueDiscipline != null) {
+			bulkhead.setQueueDiscipline(queueDiscipline);
+		}
+
+		BulkheadRateLimitProperties.RateLimitConfig rateLimit = config.getRateLimit();
+		if (strategy != null) {
+			rateLimit.setStrategy(strategy);
+		}
+		if (limit != null) {
+			rateLimit.setLimit(limit);
+		}
+		if (window != null) {
+			rateLimit.setWindow(DurationStyle.detectAndParse(window));
+		}
+		if (burstCapacity != null) {
+			rateLimit.setBurstCapacity(burstCapacity);
+		}
+		if (mode != null) {
+			rateLimit.setMode(mode);
+		}
+		if (maxWait != null) {
+			rateLimit.setMaxWait(DurationStyle.detectAndParse(maxWait));
+		}
+
+		registry.reconfigure(name, config);
+		return snapshot(registry.getLimiter(name));
+	}
+
+	private static Map<String, Object> snapshot(LimiterContext limiter) {
+		BulkheadStrategy.BulkheadMetrics bulkhead = limiter.getBulkhead().getMetrics();
+		Map<String, Object> bulkheadSection = new LinkedHashMap<>();
+		bulkheadSection.put("available", bulkhead.getAvailable());
+		bulkheadSection.put("limit", bulkhead.getMaxConcurrentCalls());
+		bulkheadSection.put("queueSize", bulkhead.getQueueSize() + limiter.getAsyncQueueSize());
+		bulkheadSection.put("queueCapacity", bulkhead.getQueueCapacity());
+		KeyedBulkheadStrategy keyedBulkhead = limiter.getKeyedBulkhead();
+		if (keyedBulkhead != null) {
+			bulkheadSection.put("maxConcurrentCallsPerKey", keyedBulkhead.getMaxConcurrentCallsPerKey());
+			bulkheadSection.put("keys", keyedBulkhead.getKeyCount());
+		}
+
+		RateLimitStrategy.RateLimitMetrics rateLimit = limiter.getRateLimit().getMetrics();
+		Map<String, Object> rateLimitSection = new LinkedHashMap<>();
+		rateLimitSection.put("available", rateLimit.getAvailable());
+		rateLimitSection.put("limit", rateLimit.getLimit());
+		rateLimitSection.put("windowMillis", rateLimit.getWindowDurationMillis());
+		rateLimitSection.put("remainingWindowMillis", rateLimit.getRemainingWindowMillis());
+		rateLimitSection.put("nanosToNextPermit", rateLimit.getNanosToNextPermit());
+		rateLimitSection.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(limiter.getRateLimitMaxWaitNanos()));
+		KeyedRateLimitStrategy keyed = limiter.getKeyedRateLimit();
+		if (keyed != null) {
+			rateLimitSection.put("keys", keyed.getKeyCount());
+			rateLimitSection.put("keysEvicted", keyed.getEvictionCount());
+		}
+
+		PolicyStats stats = limiter.getStats();
+		Map<String, Object> calls = new LinkedHashMap<>();
+		calls.put("rateLimitSuccess", stats.getRateLimitSuccess());
+		calls.put("rateLimitRejected", stats.getRateLimitRejected());
+		calls.put("bulkheadSuccess", stats.getBulkheadSuccess());
+		calls.put("bulkheadRejected", stats.getBulkheadRejected());
+		calls.put("circuitBreakerRejected", stats.getCircuitBreakerRejected());
+		calls.put("executionError", stats.getExecutionError());
+
+		Map<String, Object> latency = new LinkedHashMap<>();
+		latency.put("decision", snapshot(stats.getDecisionTime()));
+		latency.put("rateLimitDelay", snapshot(stats.getRateLimitDelay()));
+		latency.put("queueWait", snapshot(stats.getQueueWait()));
+		latency.put("execution", snapshot(stats.getExecutionTime()));
+
+		Map<String, Object> policy = new LinkedHashMap<>();
+		policy.put("bulkhead", bulkheadSection);
+		policy.put("rateLimit", rateLimitSection);
+		CircuitBreakerStrategy breaker = limiter.getCircuitBreaker();
+		if (breaker != null) {
+			Map<String, Object> circuitBreakerSection = new LinkedHashMap<>();
+			circuitBreakerSection.put("state", breaker.getState().name());
+			circuitBreakerSection.put("failureRate", breaker.getFailureRate());
+			circuitBreakerSection.put("slowCallRate", breaker.getSlowCallRate());
+			circuitBreakerSection.put("bufferedCalls", breaker.getBufferedCalls());
+			policy.put("circuitBreaker", circuitBreakerSection);
+		}
+		policy.put("calls", calls);
+		policy.put("latency", latency);
+		if (!stats.getTenants().isEmpty()) {
+			Map<String, Object> tenants = new LinkedHashMap<>();
+			for (TenantStats tenant : stats.getTenants()) {
+				Map<String, Object> section = new LinkedHashMap<>();
+				section.put("admitted", tenant.getAdmitted());
+				section.put("rejected", tenant.getRejected());
+				section.put("waitNanos", tenant.getWaitNanos());
+				tenants.put(tenant.getTenant(), section);
+			}
+			policy.put("tenants", tenants);
+		}
+		return policy;
+	}
+
+	private static Map<String, Object> snapshot(LatencyHistogram histogram) {
+		Map<String, Object> section = new LinkedHashMap<>();
+		section.put("count", histogram.getCount());
+		section.put("totalNanos", histogram.getTotalNanos());
+		section.put("p50Nanos", histogram.valueAtPercentile(0.5));
+		section.put("p99Nanos", histogram.valueAtPercentile(0.99));
+		section.put("maxNanos", histogram.getMax());
+		return section;
+	}
+}
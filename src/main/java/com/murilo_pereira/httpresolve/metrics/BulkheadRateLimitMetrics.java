@@ -3,9 +3,12 @@ package com.murilo_pereira.httpresolve.metrics;
 
 import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
 import com.murilo_pereira.httpresolve.core.LimiterContext;
-import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -16,11 +19,18 @@ import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Metrics for bulkhead and rate limit
+ * Exports the bulkhead and rate limit state and the policies' {@link PolicyStats} to Micrometer.
+ * Nothing is recorded through this class: meters read the limiters when scraped.
  */
 @Component
 @Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
@@ -31,11 +41,12 @@ public class BulkheadRateLimitMetrics {
 	private final BulkheadRateLimitRegistry registry;
 	private MeterRegistry meterRegistry; // Removido final para permitir injeção tardia
 
-	private final Map<String, Counter> bulkheadRejectedCounters = new ConcurrentHashMap<>();
-	private final Map<String, Counter> rateLimitRejectedCounters = new ConcurrentHashMap<>();
-	private final Map<String, Counter> executionErrorCounters = new ConcurrentHashMap<>();
-	private final Map<String, Counter> bulkheadSuccessCounters = new ConcurrentHashMap<>();
-	private final Map<String, Counter> rateLimitSuccessCounters = new ConcurrentHashMap<>();
+	private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+	private final AtomicBoolean registered = new AtomicBoolean(false);
+	private final Set<String> registeredPolicies = ConcurrentHashMap.newKeySet();
+	private final Set<String> keyedRateLimitMeters = ConcurrentHashMap.newKeySet();
+	private final Set<String> circuitBreakerMeters = ConcurrentHashMap.newKeySet();
 
 	public BulkheadRateLimitMetrics(BulkheadRateLimitRegistry registry, MeterRegistry meterRegistry) {
 		this.registry = registry;
@@ -61,8 +72,24 @@ public class BulkheadRateLimitMetrics {
 	}
 
 	private void initializeMetrics() {
+		if (!registered.compareAndSet(false, true)) {
+			return;
+		}
 		try {
-			// Create counters for each policy
+			// Policies created at runtime get their meters too, and features enabled at runtime their gauges
+			registry.addPolicyListener(new BulkheadRateLimitRegistry.PolicyListener() {
+				@Override
+				public void policyCreated(String name) {
+					registerMetricsForPolicy(name);
+				}
+
+				@Override
+				public void policyReconfigured(String name) {
+					registerOptionalMetrics(name, registry.getLimiter(name));
+				}
+			});
+
+			// Register meters for each policy
 			for (String name : registry.getPolicyNames()) {
 				registerMetricsForPolicy(name);
 			}
@@ -75,6 +102,9 @@ public class BulkheadRateLimitMetrics {
 	}
 
 	private void registerMetricsForPolicy(String name) {
+		if (!registeredPolicies.add(name)) {
+			return;
+		}
 		try {
 			LimiterContext limiter = registry.getLimiter(name);
 
@@ -86,11 +116,17 @@ public class BulkheadRateLimitMetrics {
 					.register(meterRegistry);
 
 			Gauge.builder("bulkhead.queue.size", limiter,
-							l -> l.getBulkhead().getMetrics().getQueueSize())
+							l -> l.getBulkhead().getMetrics().getQueueSize() + l.getAsyncQueueSize())
 					.tag("policy", name)
 					.description("Current queue size in the bulkhead")
 					.register(meterRegistry);
 
+			Gauge.builder("bulkhead.limit", limiter,
+							l -> l.getBulkhead().getMetrics().getMaxConcurrentCalls())
+					.tag("policy", name)
+					.description("Current concurrency limit of the bulkhead")
+					.register(meterRegistry);
+
 			// Rate limit gauges
 			Gauge.builder("ratelimit.available", limiter,
 							l -> l.getRateLimit().getMetrics().getAvailable())
@@ -104,31 +140,62 @@ public class BulkheadRateLimitMetrics {
 					.description("Remaining time in current rate limit window in milliseconds")
 					.register(meterRegistry);
 
-			// Rejected counters
-			bulkheadRejectedCounters.put(name, Counter.builder("bulkhead.rejected")
+			TimeGauge.builder("ratelimit.next.permit", limiter, TimeUnit.NANOSECONDS,
+							l -> l.getRateLimit().getMetrics().getNanosToNextPermit())
+					.tag("policy", name)
+					.description("Time until the rate limiter grants the next permit")
+					.register(meterRegistry);
+
+			registerOptionalMetrics(name, limiter);
+
+			// Call counters, read from the policy's built-in stats
+			PolicyStats stats = limiter.getStats();
+			FunctionCounter.builder("bulkhead.rejected", stats, PolicyStats::getBulkheadRejected)
 					.tag("policy", name)
 					.description("Number of requests rejected by the bulkhead")
-					.register(meterRegistry));
+					.register(meterRegistry);
 
-			rateLimitRejectedCounters.put(name, Counter.builder("ratelimit.rejected")
+			FunctionCounter.builder("ratelimit.rejected", stats, PolicyStats::getRateLimitRejected)
 					.tag("policy", name)
 					.description("Number of requests rejected by the rate limiter")
-					.register(meterRegistry));
+					.register(meterRegistry);
 
-			executionErrorCounters.put(name, Counter.builder("execution.error")
+			FunctionCounter.builder("circuitbreaker.rejected", stats, PolicyStats::getCircuitBreakerRejected)
+					.tag("policy", name)
+					.description("Number of requests rejected by an open circuit breaker")
+					.register(meterRegistry);
+
+			FunctionCounter.builder("execution.error", stats, PolicyStats::getExecutionError)
 					.tag("policy", name)
 					.description("Number of execution errors")
-					.register(meterRegistry));
+					.register(meterRegistry);
 
-			bulkheadSuccessCounters.put(name, Counter.builder("bulkhead.success")
+			FunctionCounter.builder("bulkhead.success", stats, PolicyStats::getBulkheadSuccess)
 					.tag("policy", name)
 					.description("Number of successful bulkhead acquisitions")
-					.register(meterRegistry));
+					.register(meterRegistry);
 
-			rateLimitSuccessCounters.put(name, Counter.builder("ratelimit.success")
+			FunctionCounter.builder("ratelimit.success", stats, PolicyStats::getRateLimitSuccess)
 					.tag("policy", name)
 					.description("Number of successful rate limit acquisitions")
-					.register(meterRegistry));
+					.register(meterRegistry);
+
+			// Latency histograms
+			registerHistogram("ratelimit.decision", name, stats.getDecisionTime(),
+					"Time taken by the rate limiter to decide on a call");
+			registerHistogram("ratelimit.delay", name, stats.getRateLimitDelay(),
+					"Time a call waited for its reserved rate limit slot (DELAY mode)");
+			registerHistogram("bulkhead.queue.wait", name, stats.getQueueWait(),
+					"Time spent waiting for a bulkhead permit");
+			registerHistogram("bulkhead.execution", name, stats.getExecutionTime(),
+					"Time the protected call held its bulkhead permit");
+
+			// Per-tenant counters come and go with the tenants the stats keep, followed by their background task
+			Gauge.builder("bulkhead.tenants", stats, s -> s.getTenants().size())
+					.tag("policy", name)
+					.description("Number of tenants with their own bulkhead counters")
+					.register(meterRegistry);
+			stats.setTenantsListener(new TenantMeters(name, stats)::sync);
 		} catch (Exception e) {
 			// Log e continue, não deixe uma política inválida quebrar tudo
 			System.err.println("Failed to register metrics for policy " + name + ": " + e.getMessage());
@@ -136,46 +203,124 @@ public class BulkheadRateLimitMetrics {
 	}
 
 	/**
-	 * Record methods made safe to handle null MeterRegistry
+	 * Registers the meters of the optional features a policy has, once per policy
 	 */
-	public void recordBulkheadRejected(String policyName) {
-		if (meterRegistry != null && bulkheadRejectedCounters.containsKey(policyName)) {
-			bulkheadRejectedCounters.get(policyName).increment();
-		} else if (meterRegistry != null && bulkheadRejectedCounters.containsKey("default")) {
-			bulkheadRejectedCounters.get("default").increment();
+	private void registerOptionalMetrics(String name, LimiterContext limiter) {
+		// Per-key rate limit store, read through the limiter as it may be replaced at runtime
+		if (limiter.getKeyedRateLimit() != null && keyedRateLimitMeters.add(name)) {
+			Gauge.builder("ratelimit.keys", limiter, l -> l.getKeyedRateLimit().getKeyCount())
+					.tag("policy", name)
+					.description("Number of keys holding rate limit state")
+					.register(meterRegistry);
+
+			FunctionCounter.builder("ratelimit.keys.evicted", limiter,
+							l -> l.getKeyedRateLimit().getEvictionCount())
+					.tag("policy", name)
+					.description("Number of keys evicted from a full rate limit key store")
+					.register(meterRegistry);
 		}
-	}
 
-	public void recordRateLimitRejected(String policyName) {
-		if (meterRegistry != null && rateLimitRejectedCounters.containsKey(policyName)) {
-			rateLimitRejectedCounters.get(policyName).increment();
-		} else if (meterRegistry != null && rateLimitRejectedCounters.containsKey("default")) {
-			rateLimitRejectedCounters.get("default").increment();
+		// Circuit breaker, read through the limiter as it may be replaced or disabled at runtime
+		if (limiter.getCircuitBreaker() != null && circuitBreakerMeters.add(name)) {
+			Gauge.builder("circuitbreaker.state", limiter,
+							l -> l.getCircuitBreaker() != null ? l.getCircuitBreaker().getState().ordinal() : Double.NaN)
+					.tag("policy", name)
+					.description("State of the circuit breaker (0 closed, 1 open, 2 half-open)")
+					.register(meterRegistry);
+
+			Gauge.builder("circuitbreaker.failure.rate", limiter,
+							l -> l.getCircuitBreaker() != null ? l.getCircuitBreaker().getFailureRate() : Double.NaN)
+					.tag("policy", name)
+					.description("Percentage of failed calls in the circuit breaker window (-1 below the minimum of calls)")
+					.register(meterRegistry);
+
+			Gauge.builder("circuitbreaker.slow.rate", limiter,
+							l -> l.getCircuitBreaker() != null ? l.getCircuitBreaker().getSlowCallRate() : Double.NaN)
+					.tag("policy", name)
+					.description("Percentage of slow calls in the circuit breaker window (-1 below the minimum of calls)")
+					.register(meterRegistry);
 		}
 	}
 
-	public void recordExecutionError(String policyName) {
-		if (meterRegistry != null && executionErrorCounters.containsKey(policyName)) {
-			executionErrorCounters.get(policyName).increment();
-		} else if (meterRegistry != null && executionErrorCounters.containsKey("default")) {
-			executionErrorCounters.get("default").increment();
+	/**
+	 * Keeps the meters of a policy's tenants in line with the tenants its stats keep. This runs on the
+	 * stats' background task, so neither calls nor scrapes register meters: a new tenant shows up shortly after.
+	 */
+	private final class TenantMeters {
+		private final String policy;
+		private final PolicyStats stats;
+		private final Map<String, TenantMeterSet> meters = new HashMap<>();
+
+		TenantMeters(String policy, PolicyStats stats) {
+			this.policy = policy;
+			this.stats = stats;
 		}
-	}
 
-	public void recordBulkheadSuccess(String policyName) {
-		if (meterRegistry != null && bulkheadSuccessCounters.containsKey(policyName)) {
-			bulkheadSuccessCounters.get(policyName).increment();
-		} else if (meterRegistry != null && bulkheadSuccessCounters.containsKey("default")) {
-			bulkheadSuccessCounters.get("default").increment();
+		/**
+		 * Registers the meters of new tenants and removes those of dropped ones
+		 */
+		synchronized void sync() {
+			Iterator<TenantMeterSet> registered = meters.values().iterator();
+			while (registered.hasNext()) {
+				TenantMeterSet set = registered.next();
+				if (stats.peekTenant(set.tenant().getTenant()) != set.tenant()) {
+					set.meters().forEach(meterRegistry::remove);
+					registered.remove();
+				}
+			}
+			for (TenantStats tenant : stats.getTenants()) {
+				if (!meters.containsKey(tenant.getTenant())) {
+					meters.put(tenant.getTenant(), new TenantMeterSet(tenant, register(tenant)));
+				}
+			}
 		}
-	}
 
-	public void recordRateLimitSuccess(String policyName) {
-		if (meterRegistry != null && rateLimitSuccessCounters.containsKey(policyName)) {
-			rateLimitSuccessCounters.get(policyName).increment();
-		} else if (meterRegistry != null && rateLimitSuccessCounters.containsKey("default")) {
-			rateLimitSuccessCounters.get("default").increment();
+		private List<Meter> register(TenantStats tenant) {
+			return List.of(
+					FunctionCounter.builder("bulkhead.tenant.admitted", tenant, TenantStats::getAdmitted)
+							.tag("policy", policy)
+							.tag("tenant", tenant.getTenant())
+							.description("Number of a tenant's calls admitted by the bulkhead")
+							.register(meterRegistry),
+					FunctionCounter.builder("bulkhead.tenant.rejected", tenant, TenantStats::getRejected)
+							.tag("policy", policy)
+							.tag("tenant", tenant.getTenant())
+							.description("Number of a tenant's calls rejected by the bulkhead")
+							.register(meterRegistry),
+					FunctionTimer.builder("bulkhead.tenant.wait", tenant,
+									TenantStats::getWaitCount, TenantStats::getWaitNanos, TimeUnit.NANOSECONDS)
+							.tag("policy", policy)
+							.tag("tenant", tenant.getTenant())
+							.description("Time a tenant's calls spent waiting for a bulkhead permit")
+							.register(meterRegistry));
 		}
 	}
 
+	private record TenantMeterSet(TenantStats tenant, List<Meter> meters) {
+	}
+
+	/**
+	 * Publishes a histogram as a timer (cumulative count and total) plus windowed percentile and max gauges
+	 */
+	private void registerHistogram(String metricName, String policy, LatencyHistogram histogram, String description) {
+		FunctionTimer.builder(metricName, histogram,
+						LatencyHistogram::getCount, LatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS)
+				.tag("policy", policy)
+				.description(description)
+				.register(meterRegistry);
+
+		TimeGauge.builder(metricName + ".max", histogram, TimeUnit.NANOSECONDS, LatencyHistogram::getMax)
+				.tag("policy", policy)
+				.description(description + " (max over the last minute)")
+				.register(meterRegistry);
+
+		for (double percentile : PERCENTILES) {
+			TimeGauge.builder(metricName + ".percentile", histogram, TimeUnit.NANOSECONDS,
+							h -> h.valueAtPercentile(percentile))
+					.tag("policy", policy)
+					.tag("phi", Double.toString(percentile))
+					.description(description + " (percentile over the last minute)")
+					.register(meterRegistry);
+		}
+	}
 }
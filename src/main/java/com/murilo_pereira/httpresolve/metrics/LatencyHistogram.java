@@ -0,0 +1,147 @@
+package com.murilo_pereira.httpresolve.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, allocation-free latency histogram
+ * <p>
+ * Values are counted in log-linear buckets (each power of two split into 16 linear sub-buckets,
+ * in the manner of HdrHistogram), so percentiles are accurate within about 6% over the whole
+ * nanosecond-to-minutes range with a fixed, small array. Percentiles and max cover a sliding
+ * window of the last 30 to 60 seconds, made of two slices rotated as values are recorded or read;
+ * count and total are cumulative.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 42; // ~73 minutes
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	private static final long SLICE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	private final AtomicLongArray[] slices = {new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)};
+	private final AtomicLongArray sliceMax = new AtomicLongArray(2);
+	private final AtomicLong nextRotation = new AtomicLong(System.nanoTime() + SLICE_NANOS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private volatile int current;
+
+	/**
+	 * Records a value
+	 * @param valueNanos the latency
+	 * @param nowNanos current {@link System#nanoTime()}, which callers measuring the latency already hold
+	 */
+	public void record(long valueNanos, long nowNanos) {
+		long value = Math.max(0, valueNanos);
+		rotateIfDue(nowNanos);
+
+		int slice = current;
+		slices[slice].incrementAndGet(bucketOf(value));
+		if (value > sliceMax.get(slice)) {
+			sliceMax.accumulateAndGet(slice, value, Math::max);
+		}
+		count.increment();
+		total.add(value);
+	}
+
+	private void rotateIfDue(long nowNanos) {
+		long rotation = nextRotation.get();
+		if (nowNanos - rotation >= 0) {
+			rotate(rotation, nowNanos);
+		}
+	}
+
+	private void rotate(long rotation, long nowNanos) {
+		// Idle for more than a slice: both slices are stale
+		boolean idle = nowNanos - rotation >= SLICE_NANOS;
+		if (!nextRotation.compareAndSet(rotation, (idle ? nowNanos : rotation) + SLICE_NANOS)) {
+			return;
+		}
+		int older = 1 - current;
+		clear(older);
+		if (idle) {
+			clear(current);
+		}
+		current = older;
+	}
+
+	private void clear(int slice) {
+		AtomicLongArray buckets = slices[slice];
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.lazySet(i, 0);
+		}
+		sliceMax.set(slice, 0);
+	}
+
+	/**
+	 * Value below which the given fraction of the window's recordings fall
+	 * @param percentile between 0 and 1, such as 0.99
+	 * @return the latency in nanoseconds, 0 if nothing was recorded in the window
+	 */
+	public long valueAtPercentile(double percentile) {
+		rotateIfDue(System.nanoTime());
+		long windowCount = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			windowCount += slices[0].get(i) + slices[1].get(i);
+		}
+		if (windowCount == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile * windowCount));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += slices[0].get(i) + slices[1].get(i);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Highest value recorded in the window, in nanoseconds
+	 */
+	public long getMax() {
+		rotateIfDue(System.nanoTime());
+		return Math.max(sliceMax.get(0), sliceMax.get(1));
+	}
+
+	/**
+	 * Number of values recorded since start
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Sum of the values recorded since start, in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return total.sum();
+	}
+
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+	}
+}
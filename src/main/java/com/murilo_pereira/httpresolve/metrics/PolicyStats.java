@@ -0,0 +1,229 @@
+package com.murilo_pereira.httpresolve.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in call statistics of a policy, held by its limiter
+ * <p>
+ * Counters are striped {@link LongAdder}s, so recording from many threads neither contends
+ * nor involves any lookup; latencies go to {@link LatencyHistogram}s, which do not allocate either.
+ * Micrometer, when present, only reads them. Calls naming a tenant are also counted per tenant,
+ * for about {@code maxTenants} tenants: new tenants are added without locking, and the least recently
+ * seen ones beyond the bound are dropped shortly after by a background task, which also tells the
+ * tenants listener, if any, that the tenants changed.
+ */
+public final class PolicyStats {
+	private final LongAdder rateLimitSuccess = new LongAdder();
+	private final LongAdder rateLimitRejected = new LongAdder();
+	private final LongAdder bulkheadSuccess = new LongAdder();
+	private final LongAdder bulkheadRejected = new LongAdder();
+	private final LongAdder executionError = new LongAdder();
+	private final LongAdder circuitBreakerRejected = new LongAdder();
+	private final LatencyHistogram decisionTime = new LatencyHistogram();
+	private final LatencyHistogram rateLimitDelay = new LatencyHistogram();
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+	private final LatencyHistogram executionTime = new LatencyHistogram();
+	private final Map<String, TenantStats> tenants = new ConcurrentHashMap<>();
+	private volatile int maxTenants;
+	private final AtomicBoolean trimScheduled = new AtomicBoolean(false);
+	private volatile Runnable tenantsListener;
+
+	public PolicyStats() {
+		this(100);
+	}
+
+	public PolicyStats(int maxTenants) {
+		this.maxTenants = Math.max(1, maxTenants);
+	}
+
+	public void recordRateLimitSuccess() {
+		rateLimitSuccess.increment();
+	}
+
+	public void recordRateLimitRejected() {
+		rateLimitRejected.increment();
+	}
+
+	public void recordBulkheadSuccess() {
+		bulkheadSuccess.increment();
+	}
+
+	public void recordBulkheadRejected() {
+		bulkheadRejected.increment();
+	}
+
+	public void recordExecutionError() {
+		executionError.increment();
+	}
+
+	public void recordCircuitBreakerRejected() {
+		circuitBreakerRejected.increment();
+	}
+
+	/**
+	 * Records how long the rate limiter took to decide on a call
+	 */
+	public void recordDecisionTime(long nanos, long nowNanos) {
+		decisionTime.record(nanos, nowNanos);
+	}
+
+	/**
+	 * Records how long a call was delayed to its reserved rate limit slot
+	 */
+	public void recordRateLimitDelay(long nanos, long nowNanos) {
+		rateLimitDelay.record(nanos, nowNanos);
+	}
+
+	/**
+	 * Records how long a call waited for a bulkhead permit, whether it got one or not
+	 */
+	public void recordQueueWait(long nanos, long nowNanos) {
+		queueWait.record(nanos, nowNanos);
+	}
+
+	/**
+	 * Records how long a call held its bulkhead permit
+	 */
+	public void recordExecutionTime(long nanos, long nowNanos) {
+		executionTime.record(nanos, nowNanos);
+	}
+
+	/**
+	 * Statistics of a tenant, created when first seen. Never blocks: a new tenant only schedules the
+	 * background task, which drops the least recently seen tenants beyond {@code maxTenants}.
+	 * @param tenant the tenant key
+	 * @param nowNanos current {@link System#nanoTime()}
+	 */
+	public TenantStats tenant(String tenant, long nowNanos) {
+		TenantStats stats = tenants.get(tenant);
+		if (stats == null) {
+			TenantStats created = new TenantStats(tenant, nowNanos);
+			stats = tenants.putIfAbsent(tenant, created);
+			if (stats == null) {
+				if (tenants.size() > maxTenants || tenantsListener != null) {
+					scheduleTrim();
+				}
+				return created;
+			}
+		}
+		stats.lastSeenNanos = nowNanos;
+		return stats;
+	}
+
+	/**
+	 * Statistics of a tenant if they are kept, without marking the tenant as seen
+	 */
+	TenantStats peekTenant(String tenant) {
+		return tenants.get(tenant);
+	}
+
+	private void scheduleTrim() {
+		if (trimScheduled.compareAndSet(false, true)) {
+			ForkJoinPool.commonPool().execute(this::trim);
+		}
+	}
+
+	/**
+	 * Sets the code run by the background task after tenants were added or dropped, such as keeping
+	 * per-tenant meters in line. It never runs on the path of a call.
+	 */
+	public void setTenantsListener(Runnable tenantsListener) {
+		this.tenantsListener = tenantsListener;
+		scheduleTrim();
+	}
+
+	/**
+	 * Drops the tenants seen the longest time ago beyond {@code maxTenants}, then runs the tenants listener.
+	 * A sort of the whole map, so it runs on a pool thread or on reconfiguration, never on the path of a call.
+	 */
+	private synchronized void trim() {
+		trimScheduled.set(false);
+		dropOldest();
+		Runnable listener = tenantsListener;
+		if (listener != null) {
+			listener.run();
+		}
+	}
+
+	private void dropOldest() {
+		int excess = tenants.size() - maxTenants;
+		if (excess <= 0) {
+			return;
+		}
+		// Ages are read once, as calls keep marking tenants as seen while sorting
+		long now = System.nanoTime();
+		List<Seen> byAge = new ArrayList<>(tenants.size());
+		for (TenantStats stats : tenants.values()) {
+			byAge.add(new Seen(stats, now - stats.lastSeenNanos));
+		}
+		byAge.sort(Comparator.comparingLong(Seen::ageNanos).reversed());
+		for (int i = 0; i < excess && i < byAge.size(); i++) {
+			TenantStats oldest = byAge.get(i).stats();
+			tenants.remove(oldest.getTenant(), oldest);
+		}
+	}
+
+	private record Seen(TenantStats stats, long ageNanos) {
+	}
+
+	/**
+	 * Changes how many tenants are kept, dropping the least recently seen ones beyond the new bound
+	 */
+	public void setMaxTenants(int maxTenants) {
+		this.maxTenants = Math.max(1, maxTenants);
+		trim();
+	}
+
+	// Getters
+	public long getRateLimitSuccess() {
+		return rateLimitSuccess.sum();
+	}
+
+	public long getRateLimitRejected() {
+		return rateLimitRejected.sum();
+	}
+
+	public long getBulkheadSuccess() {
+		return bulkheadSuccess.sum();
+	}
+
+	public long getBulkheadRejected() {
+		return bulkheadRejected.sum();
+	}
+
+	public long getExecutionError() {
+		return executionError.sum();
+	}
+
+	public long getCircuitBreakerRejected() {
+		return circuitBreakerRejected.sum();
+	}
+
+	public LatencyHistogram getDecisionTime() {
+		return decisionTime;
+	}
+
+	public LatencyHistogram getRateLimitDelay() {
+		return rateLimitDelay;
+	}
+
+	public LatencyHistogram getQueueWait() {
+		return queueWait;
+	}
+
+	public LatencyHistogram getExecutionTime() {
+		return executionTime;
+	}
+
+	public Collection<TenantStats> getTenants() {
+		return tenants.values();
+	}
+}
@@ -0,0 +1,64 @@
+package com.murilo_pereira.httpresolve.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead statistics of one tenant of a policy, kept by its {@link PolicyStats}
+ * <p>
+ * Only counters and a total are kept, a few words per tenant, so that many tenants stay cheap;
+ * latency percentiles remain those of the whole policy.
+ */
+public final class TenantStats {
+	private final String tenant;
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	volatile long lastSeenNanos;
+
+	TenantStats(String tenant, long nowNanos) {
+		this.tenant = tenant;
+		this.lastSeenNanos = nowNanos;
+	}
+
+	/**
+	 * Records a call admitted by the bulkhead after waiting {@code waitNanos}
+	 */
+	public void recordAdmitted(long waitNanos) {
+		admitted.increment();
+		this.waitNanos.add(waitNanos);
+	}
+
+	/**
+	 * Records a call rejected by the bulkhead after waiting {@code waitNanos}
+	 */
+	public void recordRejected(long waitNanos) {
+		rejected.increment();
+		this.waitNanos.add(waitNanos);
+	}
+
+	public String getTenant() {
+		return tenant;
+	}
+
+	public long getAdmitted() {
+		return admitted.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Number of calls that waited for the bulkhead, admitted or not
+	 */
+	public long getWaitCount() {
+		return admitted.sum() + rejected.sum();
+	}
+
+	/**
+	 * Total time the tenant's calls waited for the bulkhead
+	 */
+	public long getWaitNanos() {
+		return waitNanos.sum();
+	}
+}
@@ -0,0 +1,37 @@
+package com.murilo_pereira.httpresolve.store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process {@link RateLimitStore}, sharing budgets between the limiters of a single JVM only.
+ * Stands in for a shared store in tests and single-instance deployments.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+	private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+	private static final class Budget {
+		final long window;
+		final int used;
+
+		Budget(long window, int used) {
+			this.window = window;
+			this.used = used;
+		}
+	}
+
+	@Override
+	public int acquire(String policy, long window, int limit, int requested) {
+		int[] granted = new int[1];
+		budgets.compute(policy, (name, budget) -> {
+			if (budget != null && budget.window > window) {
+				// A later window already started: this one is over
+				return budget;
+			}
+			int used = budget != null && budget.window == window ? budget.used : 0;
+			granted[0] = Math.max(0, Math.min(requested, limit - used));
+			return new Budget(window, used + granted[0]);
+		});
+		return granted[0];
+	}
+}
@@ -0,0 +1,198 @@
+package com.murilo_pereira.httpresolve.store;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimitStore} keeping the budgets in a database table, one row per policy and window:
+ * <pre>
+ * CREATE TABLE bulkhead_rate_limit_budget (
+ *     policy VARCHAR(200) NOT NULL,
+ *     window_index BIGINT NOT NULL,
+ *     used INTEGER NOT NULL,
+ *     PRIMARY KEY (policy, window_index)
+ * )
+ * </pre>
+ * Only portable SQL is used: the first lease of a window inserts its row, the following ones update
+ * it with an optimistic compare-and-set on {@code used}, so no lock nor transaction outlives a
+ * statement. Rows of past windows are deleted when a policy opens a new window.
+ * <p>
+ * A lease is bounded by the query timeout as a whole: each statement gets the time left, and a lease
+ * running past it fails, so a slow or hung database counts as a store failure and the policies fall
+ * back to their local limit instead of waiting on it.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+	private static final int MAX_ATTEMPTS = 16;
+	private static final Duration DEFAULT_QUERY_TIMEOUT = Duration.ofSeconds(1);
+
+	private final DataSource dataSource;
+	private final long queryTimeoutNanos;
+	private final String createSql;
+	private final String probeSql;
+	private final String selectSql;
+	private final String insertSql;
+	private final String updateSql;
+	private final String deleteSql;
+
+	/**
+	 * @param tableName the budget table, optionally qualified by its schema
+	 * @throws IllegalArgumentException if the table name is not a plain SQL identifier
+	 */
+	public JdbcRateLimitStore(DataSource dataSource, String tableName) {
+		this(dataSource, tableName, DEFAULT_QUERY_TIMEOUT);
+	}
+
+	/**
+	 * @param tableName the budget table, optionally qualified by its schema
+	 * @param queryTimeout the longest a lease may take, all its statements included
+	 * @throws IllegalArgumentException if the table name is not a plain SQL identifier or the timeout is not positive
+	 */
+	public JdbcRateLimitStore(DataSource dataSource, String tableName, Duration queryTimeout) {
+		if (tableName == null || !tableName.matches("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?")) {
+			throw new IllegalArgumentException("Invalid rate limit store table name: " + tableName);
+		}
+		if (queryTimeout == null || queryTimeout.isNegative() || queryTimeout.isZero()) {
+			throw new IllegalArgumentException("Rate limit store query timeout must be positive, got " + queryTimeout);
+		}
+		this.dataSource = dataSource;
+		this.queryTimeoutNanos = queryTimeout.toNanos();
+		this.createSql = "CREATE TABLE " + tableName + " (policy VARCHAR(200) NOT NULL, window_index BIGINT NOT NULL, "
+				+ "used INTEGER NOT NULL, PRIMARY KEY (policy, window_index))";
+		this.probeSql = "SELECT 1 FROM " + tableName + " WHERE 1 = 0";
+		this.selectSql = "SELECT used FROM " + tableName + " WHERE policy = ? AND window_index = ?";
+		this.insertSql = "INSERT INTO " + tableName + " (policy, window_index, used) VALUES (?, ?, ?)";
+		this.updateSql = "UPDATE " + tableName + " SET used = ? WHERE policy = ? AND window_index = ? AND used = ?";
+		this.deleteSql = "DELETE FROM " + tableName + " WHERE policy = ? AND window_index < ?";
+	}
+
+	/**
+	 * Creates the budget table unless it already exists
+	 */
+	public void initializeSchema() {
+		try (Connection connection = dataSource.getConnection();
+			 Statement statement = connection.createStatement()) {
+			try {
+				statement.executeQuery(probeSql).close();
+			} catch (SQLException missing) {
+				statement.execute(createSql);
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Cannot create the rate limit store table: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public int acquire(String policy, long window, int limit, int requested) {
+		long deadline = System.nanoTime() + queryTimeoutNanos;
+		try (Connection connection = dataSource.getConnection()) {
+			boolean autoCommit = connection.getAutoCommit();
+			if (!autoCommit) {
+				connection.setAutoCommit(true);
+			}
+			try {
+				return acquire(connection, deadline, policy, window, limit, requested);
+			} finally {
+				if (!autoCommit) {
+					connection.setAutoCommit(false);
+				}
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Rate limit store unavailable: " + e.getMessage(), e);
+		}
+	}
+
+	private int acquire(Connection connection, long deadline, String policy, long window, int limit, int requested) throws SQLException {
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			Integer used = selectUsed(connection, deadline, policy, window);
+			if (used == null) {
+				int granted = Math.max(0, Math.min(requested, limit));
+				if (insert(connection, deadline, policy, window, granted)) {
+					deletePastWindows(connection, deadline, policy, window);
+					return granted;
+				}
+				// Another instance opened the window first
+				continue;
+			}
+
+			int granted = Math.min(requested, limit - used);
+			if (granted <= 0) {
+				return 0;
+			}
+			if (update(connection, deadline, policy, window, used, used + granted)) {
+				return granted;
+			}
+		}
+		// Heavily contended: grant nothing rather than risk exceeding the limit
+		return 0;
+	}
+
+	/**
+	 * Prepares a statement bounded by the time left to the lease
+	 * @throws SQLTimeoutException if the lease already took the whole query timeout
+	 */
+	private static PreparedStatement prepare(Connection connection, long deadline, String sql) throws SQLException {
+		long remaining = deadline - System.nanoTime();
+		if (remaining <= 0) {
+			throw new SQLTimeoutException("Rate limit store lease timed out");
+		}
+		PreparedStatement statement = connection.prepareStatement(sql);
+		try {
+			// JDBC timeouts are in whole seconds, 0 meaning none
+			statement.setQueryTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + 999_999_999L)));
+		} catch (SQLException e) {
+			statement.close();
+			throw e;
+		}
+		return statement;
+	}
+
+	private Integer selectUsed(Connection connection, long deadline, String policy, long window) throws SQLException {
+		try (PreparedStatement statement = prepare(connection, deadline, selectSql)) {
+			statement.setString(1, policy);
+			statement.setLong(2, window);
+			try (ResultSet result = statement.executeQuery()) {
+				return result.next() ? result.getInt(1) : null;
+			}
+		}
+	}
+
+	private boolean insert(Connection connection, long deadline, String policy, long window, int used) throws SQLException {
+		try (PreparedStatement statement = prepare(connection, deadline, insertSql)) {
+			statement.setString(1, policy);
+			statement.setLong(2, window);
+			statement.setInt(3, used);
+			return statement.executeUpdate() == 1;
+		} catch (SQLException e) {
+			// SQLState class 23: integrity constraint violation, i.e. the row already exists
+			if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+				return false;
+			}
+			throw e;
+		}
+	}
+
+	private boolean update(Connection connection, long deadline, String policy, long window, int expected, int used) throws SQLException {
+		try (PreparedStatement statement = prepare(connection, deadline, updateSql)) {
+			statement.setInt(1, used);
+			statement.setString(2, policy);
+			statement.setLong(3, window);
+			statement.setInt(4, expected);
+			return statement.executeUpdate() == 1;
+		}
+	}
+
+	private void deletePastWindows(Connection connection, long deadline, String policy, long window) throws SQLException {
+		try (PreparedStatement statement = prepare(connection, deadline, deleteSql)) {
+			statement.setString(1, policy);
+			statement.setLong(2, window);
+			statement.executeUpdate();
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.murilo_pereira.httpresolve.store;
+
+/**
+ * Shared store of rate limit budgets, the source of truth of a rate limit enforced across instances
+ * <p>
+ * Time is divided in fixed windows aligned on the epoch, so every instance computes the same window
+ * index from its clock. Each policy owns a budget of {@code limit} permits per window, from which
+ * instances lease chunks and serve requests locally. Implementations must be thread-safe and must
+ * never grant more than {@code limit} permits for a policy and window in total.
+ */
+public interface RateLimitStore {
+	/**
+	 * Takes up to {@code requested} permits from the budget of a policy's window
+	 * @param policy the policy name
+	 * @param window the window index ({@code epochMillis / windowMillis})
+	 * @param limit the permits per window
+	 * @param requested the permits wanted, at least 1
+	 * @return the permits granted, between 0 (budget exhausted) and {@code requested}
+	 * @throws RuntimeException if the store cannot be reached
+	 */
+	int acquire(String policy, long window, int limit, int requested);
+}
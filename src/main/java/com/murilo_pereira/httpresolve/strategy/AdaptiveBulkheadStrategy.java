@@ -0,0 +1,165 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead implementation whose concurrency limit follows the observed call latency
+ * <p>
+ * Latency samples are aggregated over short windows. At the end of each window the average latency
+ * is compared with a baseline tracking the lowest latency observed (slowly drifting upwards, so it
+ * follows lasting changes of the dependency): the limit shrinks in proportion when latency inflates
+ * (requests are queueing downstream), whatever its size, and grows by roughly {@code sqrt(limit)}
+ * while latency stays near the baseline and the limit is actually being used. The limit always stays
+ * within [{@code minConcurrentCalls}, {@code maxConcurrentCalls}]. Updates take the same lock as
+ * {@link #reconfigure}, once per window, so new bounds are never overwritten by a concurrent update.
+ * <p>
+ * Calls over the limit are rejected right away; queue settings do not apply.
+ */
+public class AdaptiveBulkheadStrategy implements BulkheadStrategy {
+	private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final int MIN_WINDOW_SAMPLES = 10;
+	private static final double RTT_TOLERANCE = 1.5;
+	private static final double SMOOTHING = 0.2;
+	private static final int BASELINE_WINDOWS = 100;
+
+	private volatile int minLimit;
+	private volatile int maxLimit;
+	private final AtomicInteger inFlight = new AtomicInteger(0);
+	private final LongAdder windowLatency = new LongAdder();
+	private final LongAdder windowSamples = new LongAdder();
+	private final AtomicLong windowMinLatency = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicInteger windowMaxInFlight = new AtomicInteger(0);
+	private final AtomicLong nextUpdate = new AtomicLong(System.nanoTime() + WINDOW_NANOS);
+
+	private volatile int limit;
+	private volatile double estimatedLimit;
+	private volatile double baselineRttNanos;
+
+	public AdaptiveBulkheadStrategy(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.maxLimit = Math.max(1, config.getMaxConcurrentCalls());
+		this.minLimit = Math.min(maxLimit, Math.max(1, config.getMinConcurrentCalls()));
+		this.estimatedLimit = Math.max(minLimit, maxLimit / 2);
+		this.limit = (int) estimatedLimit;
+	}
+
+	@Override
+	public boolean tryAcquirePermission() {
+		return tryAcquirePermission(1);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits) {
+		while (true) {
+			int current = inFlight.get();
+			if (current + permits > limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + permits)) {
+				windowMaxInFlight.accumulateAndGet(current + permits, Math::max);
+				return true;
+			}
+		}
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow(int permits) {
+		return tryAcquirePermission(permits);
+	}
+
+	@Override
+	public void releasePermission() {
+		inFlight.decrementAndGet();
+	}
+
+	@Override
+	public void releaseUnusedPermission(int permits) {
+		inFlight.addAndGet(-permits);
+	}
+
+	@Override
+	public void releasePermission(long elapsedNanos) {
+		releasePermission(1, elapsedNanos);
+	}
+
+	/**
+	 * Releases the permits of a call; a weighted call still counts as a single latency sample
+	 */
+	@Override
+	public void releasePermission(int permits, long elapsedNanos) {
+		inFlight.addAndGet(-permits);
+		windowLatency.add(elapsedNanos);
+		windowSamples.increment();
+		if (elapsedNanos < windowMinLatency.get()) {
+			windowMinLatency.accumulateAndGet(elapsedNanos, Math::min);
+		}
+
+		long now = System.nanoTime();
+		long deadline = nextUpdate.get();
+		if (now - deadline >= 0 && windowSamples.sum() >= MIN_WINDOW_SAMPLES
+				&& nextUpdate.compareAndSet(deadline, now + WINDOW_NANOS)) {
+			// Only the thread that moved the deadline updates the limit
+			updateLimit();
+		}
+	}
+
+	private synchronized void updateLimit() {
+		long samples = windowSamples.sumThenReset();
+		long latency = windowLatency.sumThenReset();
+		long minLatency = windowMinLatency.getAndSet(Long.MAX_VALUE);
+		int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+		if (samples == 0) {
+			return;
+		}
+		double rtt = (double) latency / samples;
+
+		if (baselineRttNanos == 0 || minLatency < baselineRttNanos) {
+			baselineRttNanos = Math.max(1, minLatency);
+		} else {
+			baselineRttNanos += (minLatency - baselineRttNanos) / BASELINE_WINDOWS;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * baselineRttNanos / rtt));
+		// Headroom only while latency is near the baseline: added to a shrinking limit, it would
+		// outweigh the shrink of limits up to 4 and keep them from ever decreasing
+		double target = gradient < 1.0
+				? estimatedLimit * gradient
+				: estimatedLimit + Math.sqrt(estimatedLimit);
+		if (target > estimatedLimit && maxInFlight < estimatedLimit / 2) {
+			// The current limit is not being used, so there is no evidence it could grow
+			return;
+		}
+		estimatedLimit = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * Moves the bounds of the limit, clamping the current estimate into them
+	 */
+	@Override
+	public synchronized boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		int max = Math.max(1, config.getMaxConcurrentCalls());
+		int min = Math.min(max, Math.max(1, config.getMinConcurrentCalls()));
+		maxLimit = max;
+		minLimit = min;
+		estimatedLimit = Math.max(min, Math.min(max, estimatedLimit));
+		limit = (int) estimatedLimit;
+		return true;
+	}
+
+	@Override
+	public BulkheadMetrics getMetrics() {
+		int currentLimit = limit;
+		return new BulkheadMetrics(
+				Math.max(0, currentLimit - inFlight.get()),
+				currentLimit,
+				0,
+				0
+		);
+	}
+}
@@ -0,0 +1,110 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead implementation tracking waiters with an atomic counter
+ * <p>
+ * Admission is a {@link Semaphore#tryAcquire()} CAS. When the bulkhead is full, a queue slot is
+ * reserved by a bounded CAS increment of the waiting counter before parking on the semaphore, so
+ * the queue size is exact and no per-call bookkeeping object nor queue lock is involved.
+ */
+public class AtomicBulkheadStrategy implements BulkheadStrategy {
+	private final ResizableSemaphore semaphore;
+	private final AtomicInteger waiting = new AtomicInteger(0);
+	private final QueueDiscipline discipline;
+	private volatile int maxQueueSize;
+	private volatile long queueTimeoutNanos;
+
+	public AtomicBulkheadStrategy(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.maxQueueSize = Math.max(0, config.getMaxQueueSize());
+		this.queueTimeoutNanos = config.getQueueTimeout().toNanos();
+		this.semaphore = new ResizableSemaphore(config.getMaxConcurrentCalls());
+		this.discipline = new QueueDiscipline(config);
+	}
+
+	@Override
+	public boolean tryAcquirePermission() {
+		return tryAcquirePermission(1);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits) {
+		if (semaphore.tryAcquire(permits)) {
+			return true;
+		}
+		if (maxQueueSize == 0 || permits > semaphore.getPermits()) {
+			return false;
+		}
+
+		// Reserve a queue slot
+		int current;
+		do {
+			current = waiting.get();
+			if (current >= maxQueueSize) {
+				return false;
+			}
+		} while (!waiting.compareAndSet(current, current + 1));
+
+		try {
+			// The fair semaphore keeps waiters in FIFO order; the discipline only bounds their wait
+			return semaphore.tryAcquire(permits, discipline.enter(current, queueTimeoutNanos), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} finally {
+			discipline.leave(waiting.decrementAndGet());
+		}
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow() {
+		return semaphore.tryAcquire();
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow(int permits) {
+		return semaphore.tryAcquire(permits);
+	}
+
+	@Override
+	public void releasePermission() {
+		semaphore.release();
+	}
+
+	@Override
+	public void releaseUnusedPermission(int permits) {
+		semaphore.release(permits);
+	}
+
+	@Override
+	public void releasePermission(int permits, long elapsedNanos) {
+		semaphore.release(permits);
+	}
+
+	/**
+	 * Resizes the semaphore in place; waiters already queued beyond a smaller queue size finish their wait
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		semaphore.resize(config.getMaxConcurrentCalls());
+		maxQueueSize = Math.max(0, config.getMaxQueueSize());
+		queueTimeoutNanos = config.getQueueTimeout().toNanos();
+		discipline.reconfigure(config);
+		return true;
+	}
+
+	@Override
+	public BulkheadMetrics getMetrics() {
+		return new BulkheadMetrics(
+				Math.max(0, semaphore.availablePermits()),
+				semaphore.getPermits(),
+				waiting.get(),
+				maxQueueSize
+		);
+	}
+}
@@ -0,0 +1,155 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keyed rate limiter holding one {@link RateLimitStrategy} per key in a size-bounded map
+ * <p>
+ * Keys idle for longer than {@code keyIdleTimeout} are swept lazily while new keys are inserted.
+ * When the map is still full after a sweep, the least recently used key among a small sample is
+ * evicted, so memory stays bounded no matter how many distinct keys show up.
+ */
+public class BoundedKeyedRateLimitStrategy implements KeyedRateLimitStrategy {
+	private static final int EVICTION_SAMPLE_SIZE = 8;
+	private static final int EVICTION_SKIP_BOUND = 256;
+
+	private final Map<String, Entry> limiters = new ConcurrentHashMap<>();
+	private final Function<BulkheadRateLimitProperties.RateLimitConfig, RateLimitStrategy> factory;
+	private volatile BulkheadRateLimitProperties.RateLimitConfig config;
+	private volatile int maxKeys;
+	private volatile long idleTimeoutNanos;
+	private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+	private final AtomicBoolean sweeping = new AtomicBoolean(false);
+	private final AtomicLong evictions = new AtomicLong(0);
+
+	private static class Entry {
+		final RateLimitStrategy limiter;
+		volatile long lastAccess;
+
+		Entry(RateLimitStrategy limiter, long now) {
+			this.limiter = limiter;
+			this.lastAccess = now;
+		}
+	}
+
+	/**
+	 * @param factory creates the rate limiter of a new key from the current configuration
+	 */
+	public BoundedKeyedRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config,
+										 Function<BulkheadRateLimitProperties.RateLimitConfig, RateLimitStrategy> factory) {
+		this.factory = factory;
+		this.config = config;
+		this.maxKeys = Math.max(1, config.getMaxKeys());
+		this.idleTimeoutNanos = config.getKeyIdleTimeout().toNanos();
+	}
+
+	@Override
+	public boolean tryConsumePermission(String key) {
+		return tryConsumePermission(key, 1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(String key, int permits) {
+		return entry(key).limiter.tryConsumePermission(permits);
+	}
+
+	@Override
+	public long reservePermission(String key, int permits, long maxWaitNanos) {
+		return entry(key).limiter.reservePermission(permits, maxWaitNanos);
+	}
+
+	private Entry entry(String key) {
+		long now = System.nanoTime();
+		Entry entry = limiters.get(key);
+		if (entry == null) {
+			entry = insert(key, now);
+		} else {
+			entry.lastAccess = now;
+		}
+		return entry;
+	}
+
+	private Entry insert(String key, long now) {
+		if (limiters.size() >= maxKeys || now - lastSweep.get() > idleTimeoutNanos) {
+			sweep(now);
+		}
+		return limiters.computeIfAbsent(key, k -> new Entry(factory.apply(config), now));
+	}
+
+	/**
+	 * Reconfigures the limiter of every known key in place; keys whose limiter cannot follow the
+	 * change are dropped and start over with the new configuration
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		this.config = config;
+		this.maxKeys = Math.max(1, config.getMaxKeys());
+		this.idleTimeoutNanos = config.getKeyIdleTimeout().toNanos();
+		limiters.values().removeIf(e -> !e.limiter.reconfigure(config));
+		return true;
+	}
+
+	/**
+	 * Removes idle keys (at most once per idle timeout) and, if still full, evicts the least
+	 * recently used key of a sample.
+	 * Only one thread sweeps at a time; the others proceed and may briefly overshoot the bound.
+	 */
+	private void sweep(long now) {
+		if (!sweeping.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			if (now - lastSweep.get() > idleTimeoutNanos) {
+				limiters.values().removeIf(e -> now - e.lastAccess > idleTimeoutNanos);
+				lastSweep.set(now);
+			}
+			while (limiters.size() >= maxKeys) {
+				evictOldestSampled();
+			}
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	private void evictOldestSampled() {
+		String victim = null;
+		long oldest = Long.MAX_VALUE;
+		Iterator<Map.Entry<String, Entry>> it = limiters.entrySet().iterator();
+		// Start the sample at a random position so the same keys are not always the candidates
+		int skip = ThreadLocalRandom.current().nextInt(EVICTION_SKIP_BOUND);
+		for (int i = 0; i < skip && it.hasNext(); i++) {
+			it.next();
+		}
+		if (!it.hasNext()) {
+			it = limiters.entrySet().iterator();
+		}
+		for (int i = 0; i < EVICTION_SAMPLE_SIZE && it.hasNext(); i++) {
+			Map.Entry<String, Entry> candidate = it.next();
+			if (victim == null || candidate.getValue().lastAccess - oldest < 0) {
+				victim = candidate.getKey();
+				oldest = candidate.getValue().lastAccess;
+			}
+		}
+		if (victim != null && limiters.remove(victim) != null) {
+			evictions.incrementAndGet();
+		}
+	}
+
+	@Override
+	public int getKeyCount() {
+		return limiters.size();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+}
@@ -1,23 +1,146 @@
 package com.murilo_pereira.httpresolve.strategy;
 
 
+import com.murilo_pereira.httpresolve.annotation.Criticality;
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
 import com.murilo_pereira.httpresolve.exception.BulkheadException;
 
 /**
  * Strategy interface for bulkhead implementations
  */
 public interface BulkheadStrategy {
+	/**
+	 * Number of priorities a call may have, the ordinals of {@link Criticality}
+	 */
+	int PRIORITY_LEVELS = Criticality.values().length;
+
+	/**
+	 * Priority of calls that do not state one
+	 */
+	int DEFAULT_PRIORITY = Criticality.CRITICAL.ordinal();
+	/**
+	 * Attempts to acquire a permit without throwing on rejection, waiting in the queue if one is configured
+	 * @return true if the permit was acquired, false if the bulkhead is full, the wait timed out
+	 * or the thread was interrupted (its interrupt status is then restored)
+	 */
+	boolean tryAcquirePermission();
+
+	/**
+	 * Attempts to acquire a permit without ever waiting, as required on event-loop threads.
+	 * Implementations whose {@link #tryAcquirePermission()} may wait in a queue override this.
+	 * @return true if the permit was acquired
+	 */
+	default boolean tryAcquirePermissionNow() {
+		return tryAcquirePermission();
+	}
+
+	/**
+	 * Attempts to acquire several permits at once, for a call weighing {@code permits} calls,
+	 * waiting in the queue if one is configured. Either all permits are acquired or none.
+	 * @param permits the number of permits, at least 1
+	 * @return true if the permits were acquired
+	 * @throws UnsupportedOperationException if the implementation only supports single permits
+	 */
+	default boolean tryAcquirePermission(int permits) {
+		if (permits == 1) {
+			return tryAcquirePermission();
+		}
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support weighted permits");
+	}
+
+	/**
+	 * Attempts to acquire permits for a call of the given priority, waiting in the queue if one is configured.
+	 * Implementations without a priority queue ignore the priority.
+	 * @param permits the number of permits, at least 1
+	 * @param priority the ordinal of the call's {@link Criticality}; higher priorities are served first
+	 * @return true if the permits were acquired
+	 */
+	default boolean tryAcquirePermission(int permits, int priority) {
+		return tryAcquirePermission(permits);
+	}
+
+	/**
+	 * Attempts to acquire permits for a call of the given priority made on behalf of a tenant, waiting
+	 * in the queue if one is configured. Implementations without per-tenant queues ignore the tenant.
+	 * @param permits the number of permits, at least 1
+	 * @param priority the ordinal of the call's {@link Criticality}
+	 * @param tenant the tenant the call is made for, or null if it names none
+	 * @return true if the permits were acquired
+	 */
+	default boolean tryAcquirePermission(int permits, int priority, String tenant) {
+		return tryAcquirePermission(permits, priority);
+	}
+
+	/**
+	 * Attempts to acquire several permits at once without ever waiting. Either all permits are acquired or none.
+	 * @param permits the number of permits, at least 1
+	 * @return true if the permits were acquired
+	 * @throws UnsupportedOperationException if the implementation only supports single permits
+	 */
+	default boolean tryAcquirePermissionNow(int permits) {
+		if (permits == 1) {
+			return tryAcquirePermissionNow();
+		}
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support weighted permits");
+	}
+
 	/**
 	 * Attempts to acquire a permit
 	 * @throws BulkheadException if the bulkhead is full
 	 */
-	void acquirePermission() throws BulkheadException;
+	default void acquirePermission() throws BulkheadException {
+		if (!tryAcquirePermission()) {
+			throw new BulkheadException("Bulkhead limit exceeded");
+		}
+	}
 
 	/**
 	 * Releases a permit
 	 */
 	void releasePermission();
 
+	/**
+	 * Releases a permit, reporting how long the protected call held it
+	 * @param elapsedNanos duration of the protected call
+	 */
+	default void releasePermission(long elapsedNanos) {
+		releasePermission();
+	}
+
+	/**
+	 * Releases permits that no call ran with, such as permits granted to a caller that already gave up
+	 * @param permits the number of permits
+	 */
+	default void releaseUnusedPermission(int permits) {
+		if (permits == 1) {
+			releasePermission();
+		} else {
+			throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support weighted permits");
+		}
+	}
+
+	/**
+	 * Releases the permits of a weighted call, reporting how long the protected call held them
+	 * @param permits the number of permits acquired by the call
+	 * @param elapsedNanos duration of the protected call
+	 */
+	default void releasePermission(int permits, long elapsedNanos) {
+		if (permits == 1) {
+			releasePermission(elapsedNanos);
+		} else {
+			throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support weighted permits");
+		}
+	}
+
+	/**
+	 * Applies a new configuration in place, keeping the permits held by calls in flight
+	 * @param config the new configuration of the policy
+	 * @return false if this instance cannot follow the change and must be replaced
+	 */
+	default boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		return false;
+	}
+
 	/**
 	 * Gets the current usage statistics
 	 * @return current usage status
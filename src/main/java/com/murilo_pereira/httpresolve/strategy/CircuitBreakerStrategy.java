@@ -0,0 +1,307 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.exception.BulkheadRateLimitException;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker failing calls fast while the protected dependency fails or is slow
+ * <p>
+ * The outcomes of the last {@code slidingWindowSize} calls are kept in a ring written with a single
+ * atomic swap per call; counts of calls, failures and slow calls follow each swap, so the rates are
+ * read in O(1) without scanning the ring. Once the window holds {@code minimumNumberOfCalls} and either
+ * rate reaches its threshold, the circuit opens: calls are rejected with a single volatile read until
+ * {@code waitDurationInOpenState} has passed. The circuit then lets {@code permittedCallsInHalfOpenState}
+ * trial calls through, and closes with an empty window or opens again depending on their rates.
+ * Only state transitions take a lock, and they never run on the path of an admitted call.
+ * <p>
+ * Each permission names the state it was given in: a trial call counts only towards the trial it was
+ * admitted for, and a call admitted while closed only towards the window of that same closed period.
+ * Rejections by a policy ({@link BulkheadRateLimitException}) and the configured
+ * {@code ignoreExceptions} are not outcomes of the dependency and count neither way.
+ */
+public class CircuitBreakerStrategy {
+	private static final int CLOSED = 0;
+	private static final int OPEN = 1;
+	private static final int HALF_OPEN = 2;
+
+	// Outcome bits of a ring slot; an empty slot is 0
+	private static final int RECORDED = 1;
+	private static final int FAILED = 2;
+	private static final int SLOW = 4;
+
+	/**
+	 * States of the circuit
+	 */
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/**
+	 * Returned by {@link #acquirePermission()} when the call is rejected
+	 */
+	public static final long REJECTED = -1;
+
+	// Permissions carry the generation they were given in, shifted left, and the trial flag in the lowest bit
+	private static final long TRIAL = 1;
+
+	private final AtomicIntegerArray outcomes;
+	private final AtomicLong cursor = new AtomicLong();
+	private final AtomicInteger calls = new AtomicInteger();
+	private final AtomicInteger failures = new AtomicInteger();
+	private final AtomicInteger slowCalls = new AtomicInteger();
+	// Generation in the high 32 bits, moved by every half-open transition, and trial permits left in the low ones
+	private final AtomicLong trial = new AtomicLong();
+	private final AtomicInteger trialCalls = new AtomicInteger();
+	private final AtomicInteger trialFailures = new AtomicInteger();
+	private final AtomicInteger trialSlowCalls = new AtomicInteger();
+	private volatile int state = CLOSED;
+	private volatile long openUntilNanos;
+	private volatile long halfOpenSinceNanos;
+	private volatile int failureRateThreshold;
+	private volatile int slowCallRateThreshold;
+	private volatile long slowCallDurationNanos;
+	private volatile int minimumNumberOfCalls;
+	private volatile long waitDurationNanos;
+	private volatile int permittedTrialCalls;
+	private volatile List<Class<? extends Throwable>> ignoreExceptions;
+
+	public CircuitBreakerStrategy(BulkheadRateLimitProperties.CircuitBreakerConfig config) {
+		if (config.getSlidingWindowSize() < 1) {
+			throw new IllegalArgumentException("Circuit breaker sliding window size must be at least 1, got "
+					+ config.getSlidingWindowSize());
+		}
+		this.outcomes = new AtomicIntegerArray(config.getSlidingWindowSize());
+		apply(config);
+	}
+
+	/**
+	 * Attempts to let a call through
+	 * @return the permission of the call, or {@link #REJECTED}. The outcome of a permitted call must be
+	 * reported through {@link #onResult(long, Throwable, long)}, or the permission given back through
+	 * {@link #releasePermission(long)}
+	 */
+	public long acquirePermission() {
+		while (true) {
+			int current = state;
+			if (current == CLOSED) {
+				return (trial.get() >>> 32) << 1;
+			}
+			if (current == OPEN) {
+				if (System.nanoTime() - openUntilNanos < 0) {
+					return REJECTED;
+				}
+				halfOpen();
+				continue;
+			}
+			long trialState = trial.get();
+			if ((int) trialState <= 0) {
+				// Trial calls that never report back, such as calls stuck on the dependency, must not
+				// keep the circuit half-open forever: it opens again and retries after the wait
+				if (System.nanoTime() - halfOpenSinceNanos - waitDurationNanos >= 0) {
+					open(HALF_OPEN);
+					continue;
+				}
+				return REJECTED;
+			}
+			if (trial.compareAndSet(trialState, trialState - 1)) {
+				return ((trialState >>> 32) << 1) | TRIAL;
+			}
+		}
+	}
+
+	/**
+	 * Gives back the permission of a call that did not run, such as a call rejected by the rate limit
+	 * or the bulkhead, so that it takes no trial slot of a half-open circuit
+	 */
+	public void releasePermission(long permission) {
+		if ((permission & TRIAL) == 0) {
+			return;
+		}
+		while (true) {
+			long trialState = trial.get();
+			if (state != HALF_OPEN || trialState >>> 32 != permission >>> 1) {
+				// The trial the permission was taken from is over
+				return;
+			}
+			if (trial.compareAndSet(trialState, trialState + 1)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reports the outcome of a call let through
+	 * @param permission the permission returned by {@link #acquirePermission()} for the call
+	 * @param failure the exception the call failed with, or null if it succeeded
+	 * @param elapsedNanos duration of the call
+	 */
+	public void onResult(long permission, Throwable failure, long elapsedNanos) {
+		if (failure != null && isIgnored(failure)) {
+			releasePermission(permission);
+			return;
+		}
+		int outcome = RECORDED | (failure != null ? FAILED : 0) | (elapsedNanos >= slowCallDurationNanos ? SLOW : 0);
+		long generation = permission >>> 1;
+		if ((permission & TRIAL) != 0) {
+			if (state != HALF_OPEN || trial.get() >>> 32 != generation) {
+				// A trial call outliving its trial
+				return;
+			}
+			if ((outcome & FAILED) != 0) {
+				trialFailures.incrementAndGet();
+			}
+			if ((outcome & SLOW) != 0) {
+				trialSlowCalls.incrementAndGet();
+			}
+			// Exactly one call completes the trial, after all the trial failures were counted
+			if (trialCalls.incrementAndGet() == permittedTrialCalls) {
+				endTrial();
+			}
+			return;
+		}
+		if (state != CLOSED || trial.get() >>> 32 != generation) {
+			// A call admitted before the circuit opened
+			return;
+		}
+
+		int slot = (int) (cursor.getAndIncrement() % outcomes.length());
+		count(outcomes.getAndSet(slot, outcome), -1);
+		count(outcome, 1);
+		int recorded = calls.get();
+		if (recorded >= minimumNumberOfCalls && exceeds(failures.get(), slowCalls.get(), recorded)) {
+			open(CLOSED);
+		}
+	}
+
+	/**
+	 * Applies new thresholds in place, keeping the recorded outcomes and the state
+	 * @return false if the window size changed, as this instance must then be replaced
+	 */
+	public boolean reconfigure(BulkheadRateLimitProperties.CircuitBreakerConfig config) {
+		if (config.getSlidingWindowSize() != outcomes.length()) {
+			return false;
+		}
+		apply(config);
+		return true;
+	}
+
+	public State getState() {
+		return State.values()[state];
+	}
+
+	/**
+	 * Percentage of failed calls in the window, or -1 until it holds {@code minimumNumberOfCalls}
+	 */
+	public float getFailureRate() {
+		return rate(failures.get());
+	}
+
+	/**
+	 * Percentage of slow calls in the window, or -1 until it holds {@code minimumNumberOfCalls}
+	 */
+	public float getSlowCallRate() {
+		return rate(slowCalls.get());
+	}
+
+	/**
+	 * Number of outcomes in the window
+	 */
+	public int getBufferedCalls() {
+		return calls.get();
+	}
+
+	private void apply(BulkheadRateLimitProperties.CircuitBreakerConfig config) {
+		this.failureRateThreshold = checkPercentage("failure rate threshold", config.getFailureRateThreshold());
+		this.slowCallRateThreshold = checkPercentage("slow call rate threshold", config.getSlowCallRateThreshold());
+		this.slowCallDurationNanos = config.getSlowCallDuration().toNanos();
+		this.minimumNumberOfCalls = Math.max(1, Math.min(config.getMinimumNumberOfCalls(), outcomes.length()));
+		this.waitDurationNanos = config.getWaitDurationInOpenState().toNanos();
+		this.permittedTrialCalls = Math.max(1, config.getPermittedCallsInHalfOpenState());
+		this.ignoreExceptions = List.copyOf(config.getIgnoreExceptions());
+	}
+
+	private boolean isIgnored(Throwable failure) {
+		if (failure instanceof CompletionException && failure.getCause() != null) {
+			// Failure of an asynchronous call, as reported by its stage
+			failure = failure.getCause();
+		}
+		if (failure instanceof BulkheadRateLimitException) {
+			// Rejected by a policy before reaching the dependency
+			return true;
+		}
+		for (Class<? extends Throwable> type : ignoreExceptions) {
+			if (type.isInstance(failure)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int checkPercentage(String name, int value) {
+		if (value < 1 || value > 100) {
+			throw new IllegalArgumentException("Circuit breaker " + name + " must be between 1 and 100, got " + value);
+		}
+		return value;
+	}
+
+	private boolean exceeds(int failed, int slow, int total) {
+		return failed * 100L >= (long) failureRateThreshold * total
+				|| slow * 100L >= (long) slowCallRateThreshold * total;
+	}
+
+	private float rate(int count) {
+		int total = calls.get();
+		return total < minimumNumberOfCalls ? -1 : count * 100f / total;
+	}
+
+	private void count(int outcome, int delta) {
+		if ((outcome & RECORDED) != 0) {
+			calls.addAndGet(delta);
+		}
+		if ((outcome & FAILED) != 0) {
+			failures.addAndGet(delta);
+		}
+		if ((outcome & SLOW) != 0) {
+			slowCalls.addAndGet(delta);
+		}
+	}
+
+	private synchronized void open(int from) {
+		if (state == from) {
+			openUntilNanos = System.nanoTime() + waitDurationNanos;
+			state = OPEN;
+		}
+	}
+
+	private synchronized void halfOpen() {
+		if (state == OPEN && System.nanoTime() - openUntilNanos >= 0) {
+			trialCalls.set(0);
+			trialFailures.set(0);
+			trialSlowCalls.set(0);
+			trial.set((((trial.get() >>> 32) + 1) << 32) | permittedTrialCalls);
+			halfOpenSinceNanos = System.nanoTime();
+			state = HALF_OPEN;
+		}
+	}
+
+	private synchronized void endTrial() {
+		if (state != HALF_OPEN) {
+			return;
+		}
+		if (exceeds(trialFailures.get(), trialSlowCalls.get(), trialCalls.get())) {
+			open(HALF_OPEN);
+			return;
+		}
+		// Start over with an empty window, so the failures that opened the circuit do not open it again
+		for (int i = 0; i < outcomes.length(); i++) {
+			count(outcomes.getAndSet(i, 0), -1);
+		}
+		state = CLOSED;
+	}
+}
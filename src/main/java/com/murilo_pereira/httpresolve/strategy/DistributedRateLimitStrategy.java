@@ -0,0 +1,211 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.store.RateLimitStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limiter enforcing a limit across all instances through a shared {@link RateLimitStore}
+ * <p>
+ * Requests are served from a local lease of permits taken from the policy's budget for the current
+ * window, so only the request that exhausts a lease makes a round-trip to the store. The lease and
+ * its window are packed in a single {@code long}, so serving from it is a single CAS.
+ * <p>
+ * Lease sizes follow the demand observed on this instance: a lease covers about
+ * 1/{@value #LEASES_PER_WINDOW} of the demand expected over the window (smoothed across windows,
+ * or extrapolated from the current one if higher), and never more than
+ * 1/{@value #LEASES_PER_WINDOW} of the limit, so an idle instance cannot strand much of the
+ * budget. Permits still leased when a window ends are lost: the cluster may admit slightly less
+ * than the limit, never more.
+ * <p>
+ * Windows are fixed and aligned on the wall clock whatever the configured strategy, which is
+ * used as a local fallback: when the store fails, this instance enforces the full limit on its own
+ * until the next window.
+ */
+public class DistributedRateLimitStrategy implements RateLimitStrategy {
+	private static final Logger log = LoggerFactory.getLogger(DistributedRateLimitStrategy.class);
+	private static final int LEASES_PER_WINDOW = 10;
+	private static final double SMOOTHING = 0.5;
+
+	private final String name;
+	private final RateLimitStore store;
+	private final RateLimitStrategy fallback;
+	private final AtomicLong lease = new AtomicLong(0);
+	private final LongAdder demand = new LongAdder();
+	private final Object refillLock = new Object();
+
+	private volatile int limit;
+	private volatile long windowMillis;
+	private volatile long exhaustedWindow = -1;
+	private volatile long failedWindow = -1;
+
+	// Guarded by refillLock
+	private long demandWindow = -1;
+	private double expectedDemand;
+
+	/**
+	 * @param name the policy name, identifying its budget in the store
+	 * @param fallback the local strategy enforcing the limit while the store is unavailable
+	 */
+	public DistributedRateLimitStrategy(String name, BulkheadRateLimitProperties.RateLimitConfig config,
+										RateLimitStore store, RateLimitStrategy fallback) {
+		this.name = name;
+		this.store = store;
+		this.fallback = fallback;
+		this.limit = Math.max(1, config.getLimit());
+		this.windowMillis = Math.max(1, config.getWindow().toMillis());
+	}
+
+	@Override
+	public boolean tryConsumePermission() {
+		return tryConsumePermission(1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(int permits) {
+		long window = System.currentTimeMillis() / windowMillis;
+		demand.add(permits);
+		if (window == failedWindow) {
+			return fallback.tryConsumePermission(permits);
+		}
+		if (takeLeased(window, permits)) {
+			return true;
+		}
+		if (window == exhaustedWindow || permits > limit) {
+			return false;
+		}
+		return refill(window, permits);
+	}
+
+	/**
+	 * Takes permits from the local lease, if it belongs to the given window and holds enough of them
+	 */
+	private boolean takeLeased(long window, int permits) {
+		while (true) {
+			long current = lease.get();
+			if ((int) (current >>> 32) != (int) window || (int) current < permits) {
+				return false;
+			}
+			if (lease.compareAndSet(current, current - permits)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Leases permits from the store; concurrent callers wait for the lease of the first one
+	 */
+	private boolean refill(long window, int permits) {
+		synchronized (refillLock) {
+			if (takeLeased(window, permits)) {
+				return true;
+			}
+			if (window == exhaustedWindow) {
+				return false;
+			}
+			if (window == failedWindow) {
+				return fallback.tryConsumePermission(permits);
+			}
+
+			int requested = Math.max(permits, leaseSize(window));
+			int granted;
+			try {
+				granted = store.acquire(name, window, limit, requested);
+			} catch (RuntimeException e) {
+				failedWindow = window;
+				log.warn("Rate limit store failed for policy {}, enforcing the limit locally until the next window: {}",
+						name, e.getMessage());
+				return fallback.tryConsumePermission(permits);
+			}
+
+			if (granted < requested) {
+				// The store grants what is left: the budget of this window is spent
+				exhaustedWindow = window;
+			}
+			if (granted <= 0) {
+				return false;
+			}
+			// Add to what is left of the lease; a heavy call granted too little leaves it to lighter ones
+			while (true) {
+				long current = lease.get();
+				long left = (int) (current >>> 32) == (int) window ? (int) current : 0;
+				if (lease.compareAndSet(current, ((window & 0xFFFFFFFFL) << 32) | (left + granted))) {
+					break;
+				}
+			}
+			return takeLeased(window, permits);
+		}
+	}
+
+	private int leaseSize(long window) {
+		long windowMillis = this.windowMillis;
+		if (window != demandWindow) {
+			// Fold the demand of the previous windows into the expected demand per window
+			long windows = demandWindow < 0 ? 1 : Math.max(1, window - demandWindow);
+			double observed = (double) demand.sumThenReset() / windows;
+			expectedDemand = demandWindow < 0 ? observed : expectedDemand * (1 - SMOOTHING) + observed * SMOOTHING;
+			demandWindow = window;
+		}
+
+		long elapsed = System.currentTimeMillis() - window * windowMillis;
+		double current = demand.sum() * (double) windowMillis / Math.max(elapsed, windowMillis / LEASES_PER_WINDOW + 1);
+		double expected = Math.max(expectedDemand, current);
+		int size = (int) Math.ceil(expected / LEASES_PER_WINDOW);
+		return Math.max(1, Math.min(size, limit / LEASES_PER_WINDOW));
+	}
+
+	/**
+	 * Applies the new limit and window; a new window length starts over with an empty lease
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		synchronized (refillLock) {
+			long newWindowMillis = Math.max(1, config.getWindow().toMillis());
+			if (newWindowMillis != windowMillis) {
+				windowMillis = newWindowMillis;
+				lease.set(0);
+				exhaustedWindow = -1;
+				failedWindow = -1;
+				demandWindow = -1;
+			}
+			limit = Math.max(1, config.getLimit());
+		}
+		return fallback.reconfigure(config);
+	}
+
+	/**
+	 * Local strategy in use while the store is unavailable
+	 */
+	public RateLimitStrategy getFallback() {
+		return fallback;
+	}
+
+	/**
+	 * Reports the permits left in this instance's lease, the rest of the budget being held by the store
+	 */
+	@Override
+	public RateLimitMetrics getMetrics() {
+		long windowMillis = this.windowMillis;
+		long now = System.currentTimeMillis();
+		long window = now / windowMillis;
+		if (window == failedWindow) {
+			return fallback.getMetrics();
+		}
+		long remainingMillis = windowMillis - (now - window * windowMillis);
+		long current = lease.get();
+		int available = (int) (current >>> 32) == (int) window ? (int) current : 0;
+		long nanosToNextPermit = available == 0 && window == exhaustedWindow ? remainingMillis * 1_000_000L : 0;
+
+		return new RateLimitMetrics(
+				available,
+				limit,
+				windowMillis,
+				remainingMillis,
+				nanosToNextPermit
+		);
+	}
+}
@@ -0,0 +1,330 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulkhead implementation sharing the permits fairly among the tenants of its callers
+ * <p>
+ * Admission is a CAS on the available permits while nobody waits. When the bulkhead is full, callers
+ * wait in one FIFO per tenant, and released permits are handed over in deficit round robin order:
+ * each tenant in turn is credited its weight in permits and served while its credit covers the cost
+ * of its oldest waiter, so a tenant sending ten times more calls does not get ten times more permits.
+ * When the queue is full, a caller evicts the newest waiter of the tenant with the longest queue if
+ * that queue is longer than its own. A tenant's queue and credit are dropped as soon as it has no
+ * waiter left, so the state only grows with waiting calls. The priority of calls is not used.
+ */
+public class FairShareBulkheadStrategy implements BulkheadStrategy {
+	private static final String NO_TENANT = "";
+	private static final int WAITING = 0;
+	private static final int GRANTED = 1;
+	private static final int REJECTED = 2;
+
+	private final AtomicInteger available;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<String, TenantQueue> queues = new HashMap<>();
+	private final ArrayDeque<TenantQueue> round = new ArrayDeque<>();
+	private final QueueDiscipline discipline;
+	private volatile Map<String, Integer> weights;
+	private volatile int queued;
+	private volatile int limit;
+	private volatile int maxQueueSize;
+	private volatile long queueTimeoutNanos;
+
+	private static final class TenantQueue {
+		final String tenant;
+		final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+		long deficit;
+
+		TenantQueue(String tenant) {
+			this.tenant = tenant;
+		}
+	}
+
+	private static final class Waiter {
+		final Thread thread;
+		final int permits;
+		final TenantQueue queue;
+		long timeoutNanos;
+		volatile int state = WAITING;
+
+		Waiter(int permits, TenantQueue queue) {
+			this.thread = Thread.currentThread();
+			this.permits = permits;
+			this.queue = queue;
+		}
+	}
+
+	public FairShareBulkheadStrategy(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.limit = config.getMaxConcurrentCalls();
+		this.available = new AtomicInteger(limit);
+		this.maxQueueSize = Math.max(0, config.getMaxQueueSize());
+		this.queueTimeoutNanos = config.getQueueTimeout().toNanos();
+		this.discipline = new QueueDiscipline(config);
+		this.weights = weights(config);
+	}
+
+	@Override
+	public boolean tryAcquirePermission() {
+		return tryAcquirePermission(1, DEFAULT_PRIORITY, null);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits) {
+		return tryAcquirePermission(permits, DEFAULT_PRIORITY, null);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits, int priority) {
+		return tryAcquirePermission(permits, priority, null);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits, int priority, String tenant) {
+		// Waiters are served first; the queue is only bypassed when empty
+		if (queued == 0 && take(permits)) {
+			return true;
+		}
+		if (maxQueueSize == 0 || permits > limit) {
+			return false;
+		}
+
+		String name = tenant != null ? tenant : NO_TENANT;
+		Waiter waiter;
+		lock.lock();
+		try {
+			TenantQueue queue = queues.get(name);
+			if (queued >= maxQueueSize && !shedLongerThan(queue != null ? queue.waiters.size() : 0)) {
+				return false;
+			}
+			if (queue == null) {
+				queue = new TenantQueue(name);
+				queue.deficit = weightOf(name);
+				queues.put(name, queue);
+				round.addLast(queue);
+			}
+			waiter = new Waiter(permits, queue);
+			waiter.timeoutNanos = discipline.enter(queued, queueTimeoutNanos);
+			queue.waiters.addLast(waiter);
+			queued++;
+			// Permits may have been released before the waiter was counted
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+		return await(waiter);
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow() {
+		return tryAcquirePermissionNow(1);
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow(int permits) {
+		return queued == 0 && take(permits);
+	}
+
+	@Override
+	public void releasePermission() {
+		release(1);
+	}
+
+	@Override
+	public void releaseUnusedPermission(int permits) {
+		release(permits);
+	}
+
+	@Override
+	public void releasePermission(int permits, long elapsedNanos) {
+		release(permits);
+	}
+
+	/**
+	 * Resizes the bulkhead and its queue and applies the new weights in place; waiters already queued keep their place
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		Map<String, Integer> newWeights = weights(config);
+		lock.lock();
+		try {
+			int newLimit = config.getMaxConcurrentCalls();
+			available.addAndGet(newLimit - limit);
+			limit = newLimit;
+			maxQueueSize = Math.max(0, config.getMaxQueueSize());
+			queueTimeoutNanos = config.getQueueTimeout().toNanos();
+			weights = newWeights;
+			discipline.reconfigure(config);
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+		return true;
+	}
+
+	@Override
+	public BulkheadMetrics getMetrics() {
+		return new BulkheadMetrics(
+				Math.max(0, available.get()),
+				limit,
+				queued,
+				maxQueueSize
+		);
+	}
+
+	/**
+	 * Number of tenants with calls waiting
+	 */
+	public int getWaitingTenantCount() {
+		lock.lock();
+		try {
+			return queues.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static Map<String, Integer> weights(BulkheadRateLimitProperties.BulkheadConfig config) {
+		Map<String, Integer> weights = config.getTenantWeights() != null ? config.getTenantWeights() : Map.of();
+		for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+			if (entry.getValue() == null || entry.getValue() < 1) {
+				throw new IllegalArgumentException("Tenant weight must be at least 1, got "
+						+ entry.getValue() + " for tenant: " + entry.getKey());
+			}
+		}
+		return Map.copyOf(weights);
+	}
+
+	/**
+	 * Permits a tenant is credited at each turn of the round robin, 1 unless configured
+	 * @param tenant the tenant, or null for calls naming none
+	 */
+	public int getWeight(String tenant) {
+		return weightOf(tenant != null ? tenant : NO_TENANT);
+	}
+
+	private int weightOf(String tenant) {
+		Integer weight = weights.get(tenant);
+		return weight != null ? weight : 1;
+	}
+
+	private boolean take(int permits) {
+		int current;
+		do {
+			current = available.get();
+			if (current < permits) {
+				return false;
+			}
+		} while (!available.compareAndSet(current, current - permits));
+		return true;
+	}
+
+	private void release(int permits) {
+		available.addAndGet(permits);
+		if (queued > 0) {
+			lock.lock();
+			try {
+				dispatch();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Hands the available permits out in deficit round robin order. The tenant at the front of the round
+	 * is served while its credit covers its next waiter, then goes to the back with its weight added to
+	 * its credit; a heavy waiter thus collects credit over several turns. Called with the lock held.
+	 */
+	private void dispatch() {
+		while (queued > 0) {
+			TenantQueue queue = round.peekFirst();
+			boolean lifo = discipline.isLifo();
+			Waiter head = lifo ? queue.waiters.peekLast() : queue.waiters.peekFirst();
+			if (queue.deficit < head.permits) {
+				round.pollFirst();
+				queue.deficit += weightOf(queue.tenant);
+				round.addLast(queue);
+				continue;
+			}
+			if (!take(head.permits)) {
+				return;
+			}
+			if (lifo) {
+				queue.waiters.pollLast();
+			} else {
+				queue.waiters.pollFirst();
+			}
+			queue.deficit -= head.permits;
+			if (queue.waiters.isEmpty()) {
+				round.pollFirst();
+				queues.remove(queue.tenant);
+			}
+			discipline.leave(--queued);
+			head.state = GRANTED;
+			LockSupport.unpark(head.thread);
+		}
+	}
+
+	/**
+	 * Rejects the newest waiter of the tenant with the longest queue, if longer than {@code length} plus
+	 * the caller about to join it. Called with the lock held.
+	 * @return false if no tenant waits in a longer queue than the caller's
+	 */
+	private boolean shedLongerThan(int length) {
+		TenantQueue longest = null;
+		for (TenantQueue queue : round) {
+			if (longest == null || queue.waiters.size() > longest.waiters.size()) {
+				longest = queue;
+			}
+		}
+		if (longest == null || longest.waiters.size() <= length + 1) {
+			return false;
+		}
+		// The victim's queue keeps at least one waiter, and the slot goes to the caller right away
+		Waiter victim = longest.waiters.pollLast();
+		queued--;
+		victim.state = REJECTED;
+		LockSupport.unpark(victim.thread);
+		return true;
+	}
+
+	private boolean await(Waiter waiter) {
+		long deadline = System.nanoTime() + waiter.timeoutNanos;
+		boolean interrupted = false;
+		while (waiter.state == WAITING) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0 || interrupted) {
+				lock.lock();
+				try {
+					TenantQueue queue = waiter.queue;
+					if (waiter.state == WAITING && queue.waiters.removeFirstOccurrence(waiter)) {
+						if (queue.waiters.isEmpty()) {
+							round.remove(queue);
+							queues.remove(queue.tenant);
+						}
+						discipline.leave(--queued);
+						waiter.state = REJECTED;
+						// A heavy waiter leaving may unblock lighter ones behind it
+						dispatch();
+					}
+				} finally {
+					lock.unlock();
+				}
+				break;
+			}
+			LockSupport.parkNanos(this, remaining);
+			interrupted = Thread.interrupted();
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return waiter.state == GRANTED;
+	}
+}
@@ -3,7 +3,6 @@ package com.murilo_pereira.httpresolve.strategy;
 
 
 import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
-import com.murilo_pereira.httpresolve.exception.RateLimitException;
 
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -12,8 +11,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * Fixed Window Rate Limiter Implementation
  */
 public class FixedWindowRateLimitStrategy implements RateLimitStrategy {
-	private final int limit;
-	private final long windowMillis;
+	private volatile int limit;
+	private volatile long windowMillis;
 	private final AtomicInteger counter = new AtomicInteger(0);
 	private final AtomicLong windowStartTime = new AtomicLong(System.currentTimeMillis());
 
@@ -23,8 +22,15 @@ public class FixedWindowRateLimitStrategy implements RateLimitStrategy {
 	}
 
 	@Override
-	public void consumePermission() throws RateLimitException {
+	public boolean tryConsumePermission() {
+		return tryConsumePermission(1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(int permits) {
 		long now = System.currentTimeMillis();
+		long windowMillis = this.windowMillis;
+		int limit = this.limit;
 		while (true) {
 			long windowStart = windowStartTime.get();
 			if (now - windowStart > windowMillis) {
@@ -33,17 +39,31 @@ public class FixedWindowRateLimitStrategy implements RateLimitStrategy {
 				}
 				continue;
 			}
-			int current = counter.incrementAndGet();
-			if (current > limit) {
-				throw new RateLimitException("Rate limit exceeded");
+			// Rejected calls are not counted, so a heavy call cannot use up the window
+			int current = counter.get();
+			if (current + permits > limit) {
+				return false;
+			}
+			if (counter.compareAndSet(current, current + permits)) {
+				return true;
 			}
-			break;
 		}
 	}
 
+	/**
+	 * Applies the new limit and window to the current window, keeping its count
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		limit = config.getLimit();
+		windowMillis = config.getWindow().toMillis();
+		return true;
+	}
 
 	@Override
 	public RateLimitMetrics getMetrics() {
+		int limit = this.limit;
+		long windowMillis = this.windowMillis;
 		long now = System.currentTimeMillis();
 		long windowStart = windowStartTime.get();
 
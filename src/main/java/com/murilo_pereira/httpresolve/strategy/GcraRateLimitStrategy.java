@@ -0,0 +1,121 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generic Cell Rate Algorithm (GCRA) Rate Limiter Implementation
+ * <p>
+ * The whole limiter state is the theoretical arrival time (TAT) of the next request, kept in a
+ * single {@link AtomicLong}. Requests are spaced by an emission interval of {@code window / limit};
+ * up to {@code burstCapacity} (or {@code limit}) requests may arrive ahead of schedule.
+ * Since the TAT is exact, the time until the next permit is known without any extra bookkeeping.
+ * <p>
+ * The emission interval and tolerance live in one immutable object, so they can be replaced at
+ * runtime while the TAT keeps the requests already admitted.
+ * <p>
+ * Reservations move the TAT beyond the tolerance, up to the caller's maximum wait, so calls
+ * beyond the burst are spaced one emission interval apart instead of rejected. With a warm-up
+ * period, the limiter starts with no burst credit and a longer emission interval, see {@link WarmUp}.
+ */
+public class GcraRateLimitStrategy implements RateLimitStrategy {
+	private final AtomicLong theoreticalArrivalTime;
+	private final WarmUp warmUp;
+	private volatile Rate rate;
+
+	/**
+	 * Emission interval and tolerance of a GCRA limiter, shared with {@link OffHeapKeyedRateLimitStrategy}
+	 */
+	static final class Rate {
+		final int burst;
+		final long windowMillis;
+		final long emissionIntervalNanos;
+		final long toleranceNanos;
+
+		Rate(BulkheadRateLimitProperties.RateLimitConfig config) {
+			int limit = Math.max(1, config.getLimit());
+			this.burst = config.getBurstCapacity() > 0 ? config.getBurstCapacity() : limit;
+			this.windowMillis = config.getWindow().toMillis();
+			this.emissionIntervalNanos = Math.max(1, config.getWindow().toNanos() / limit);
+			this.toleranceNanos = emissionIntervalNanos * burst;
+		}
+	}
+
+	public GcraRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config) {
+		this(config, Duration.ZERO);
+	}
+
+	/**
+	 * @param warmUp time over which the limiter ramps up to its rate after creation, zero for none
+	 */
+	public GcraRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config, Duration warmUp) {
+		this.rate = new Rate(config);
+		this.warmUp = WarmUp.of(warmUp);
+		// A warming limiter starts without burst credit
+		long now = System.nanoTime();
+		this.theoreticalArrivalTime = new AtomicLong(this.warmUp.isEnabled()
+				? now + rate.burst * this.warmUp.interval(rate.emissionIntervalNanos, now)
+				: now);
+	}
+
+	@Override
+	public boolean tryConsumePermission() {
+		return tryConsumePermission(1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(int permits) {
+		return reservePermission(permits, 0) == 0;
+	}
+
+	@Override
+	public long reservePermission(int permits, long maxWaitNanos) {
+		Rate rate = this.rate;
+		long now = System.nanoTime();
+		// The tolerance follows the interval, so a warming limiter keeps its burst size
+		long interval = warmUp.interval(rate.emissionIntervalNanos, now);
+		long tolerance = rate.burst * interval;
+		while (true) {
+			long tat = theoreticalArrivalTime.get();
+			long next = Math.max(tat, now) + permits * interval;
+			long wait = next - now - tolerance;
+			if (wait > maxWaitNanos) {
+				return -1;
+			}
+			if (theoreticalArrivalTime.compareAndSet(tat, next)) {
+				return Math.max(0, wait);
+			}
+		}
+	}
+
+	/**
+	 * Switches to the new rate; the backlog already admitted is then drained at the new rate
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		rate = new Rate(config);
+		return true;
+	}
+
+	@Override
+	public RateLimitMetrics getMetrics() {
+		Rate rate = this.rate;
+		long now = System.nanoTime();
+		long interval = warmUp.interval(rate.emissionIntervalNanos, now);
+		long tolerance = rate.burst * interval;
+		long backlog = Math.max(0, theoreticalArrivalTime.get() - now);
+		int available = (int) Math.max(0, (tolerance - backlog) / interval);
+		long nanosToNextPermit = Math.max(0, backlog + interval - tolerance);
+
+		return new RateLimitMetrics(
+				available,
+				rate.burst,
+				rate.windowMillis,
+				TimeUnit.NANOSECONDS.toMillis(backlog),
+				nanosToNextPermit
+		);
+	}
+}
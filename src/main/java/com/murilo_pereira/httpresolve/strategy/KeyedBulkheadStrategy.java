@@ -0,0 +1,100 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency cap per key (customer, account, downstream host...), applied before the policy's bulkhead
+ * <p>
+ * A key only holds state while it has calls in flight: its counter is created by its first call and
+ * removed by the release bringing it back to zero, so idle keys cost nothing. Counters are
+ * {@link AtomicInteger}s updated with a CAS loop, contending only with calls of the same key and
+ * allocating only when a key starts holding calls. A counter brought to zero is retired with a CAS
+ * before being removed, so a concurrent call either revives it first or sees it retired and starts a new one.
+ * A call over its key's cap is rejected right away rather than queued.
+ */
+public class KeyedBulkheadStrategy {
+	// Value of a counter removed from the map, which must not be taken anymore
+	private static final int RETIRED = -1;
+
+	private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+	private volatile int maxConcurrentCallsPerKey;
+
+	public KeyedBulkheadStrategy(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.maxConcurrentCallsPerKey = config.getMaxConcurrentCallsPerKey();
+	}
+
+	/**
+	 * Attempts to take permits of the given key without waiting. Either all permits are taken or none.
+	 * @param key the key the call is made for
+	 * @param permits the number of permits, at least 1
+	 * @return true if the permits were taken, false if the key is at its cap
+	 */
+	public boolean tryAcquirePermission(String key, int permits) {
+		int cap = maxConcurrentCallsPerKey;
+		while (true) {
+			AtomicInteger count = inFlight.get(key);
+			if (count == null) {
+				if (permits > cap) {
+					return false;
+				}
+				if (inFlight.putIfAbsent(key, new AtomicInteger(permits)) == null) {
+					return true;
+				}
+				continue;
+			}
+			int held = count.get();
+			if (held == RETIRED) {
+				// Released to zero concurrently: help remove it, then start over with a new counter
+				inFlight.remove(key, count);
+				continue;
+			}
+			if (held + permits > cap) {
+				return false;
+			}
+			if (count.compareAndSet(held, held + permits)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Gives back permits of the given key, dropping the key once none is held
+	 * @param key the key the call was made for
+	 * @param permits the number of permits taken by the call
+	 */
+	public void releasePermission(String key, int permits) {
+		AtomicInteger count = inFlight.get(key);
+		if (count != null && count.addAndGet(-permits) == 0 && count.compareAndSet(0, RETIRED)) {
+			inFlight.remove(key, count);
+		}
+	}
+
+	/**
+	 * Applies a new cap; keys over it keep their calls in flight and take no new one until below
+	 */
+	public void reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.maxConcurrentCallsPerKey = config.getMaxConcurrentCallsPerKey();
+	}
+
+	public int getMaxConcurrentCallsPerKey() {
+		return maxConcurrentCallsPerKey;
+	}
+
+	/**
+	 * Number of keys with calls in flight
+	 */
+	public int getKeyCount() {
+		return inFlight.size();
+	}
+
+	/**
+	 * Number of permits the given key holds
+	 */
+	public int getInFlight(String key) {
+		AtomicInteger count = inFlight.get(key);
+		return count != null ? Math.max(0, count.get()) : 0;
+	}
+}
@@ -0,0 +1,74 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.exception.RateLimitException;
+
+/**
+ * Strategy interface for rate limiters that keep independent state per key (client IP, tenant, user...)
+ */
+public interface KeyedRateLimitStrategy {
+	/**
+	 * Attempts to consume a token from the rate limiter of the given key without throwing on rejection
+	 * @param key the caller key
+	 * @return true if the token was consumed, false if rate limit is exceeded for this key
+	 */
+	boolean tryConsumePermission(String key);
+
+	/**
+	 * Attempts to consume several tokens at once from the rate limiter of the given key.
+	 * Either all tokens are consumed or none.
+	 * @param key the caller key
+	 * @param permits the number of tokens, at least 1
+	 * @return true if the tokens were consumed, false if rate limit is exceeded for this key
+	 * @throws UnsupportedOperationException if the implementation only supports single tokens
+	 */
+	default boolean tryConsumePermission(String key, int permits) {
+		if (permits == 1) {
+			return tryConsumePermission(key);
+		}
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support weighted permits");
+	}
+
+	/**
+	 * Reserves tokens of the given key that may only become available in the future
+	 * @param key the caller key
+	 * @param permits the number of tokens, at least 1
+	 * @param maxWaitNanos the longest the caller accepts to wait for them
+	 * @return the time the caller must wait before proceeding, 0 to proceed now, or -1 if the tokens
+	 * are not available within {@code maxWaitNanos}, in which case nothing is reserved
+	 * @see RateLimitStrategy#reservePermission(int, long)
+	 */
+	default long reservePermission(String key, int permits, long maxWaitNanos) {
+		return tryConsumePermission(key, permits) ? 0 : -1;
+	}
+
+	/**
+	 * Attempts to consume a token from the rate limiter of the given key
+	 * @param key the caller key
+	 * @throws RateLimitException if rate limit is exceeded for this key
+	 */
+	default void consumePermission(String key) throws RateLimitException {
+		if (!tryConsumePermission(key)) {
+			throw new RateLimitException("Rate limit exceeded");
+		}
+	}
+
+	/**
+	 * Applies a new configuration in place, keeping the state of the known keys where possible
+	 * @param config the new configuration of the policy
+	 * @return false if this instance cannot follow the change and must be replaced
+	 */
+	default boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		return false;
+	}
+
+	/**
+	 * Number of keys currently holding rate limit state, possibly estimated; read by metrics, not by calls
+	 */
+	int getKeyCount();
+
+	/**
+	 * Number of keys evicted because the store was full
+	 */
+	long getEvictionCount();
+}
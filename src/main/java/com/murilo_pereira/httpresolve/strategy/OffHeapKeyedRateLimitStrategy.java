@@ -0,0 +1,231 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed rate limiter storing per-key state in a fixed-size off-heap table
+ * <p>
+ * Each slot holds two words: a 64-bit fingerprint of the key and its GCRA theoretical arrival time
+ * (see {@link GcraRateLimitStrategy}). Slots are found by open addressing with linear probing over a
+ * bounded probe window, and both words are updated with CAS, so no lock nor per-key object is involved.
+ * <p>
+ * A slot whose arrival time is in the past carries no information (the key would be granted a full
+ * burst anyway) and is reused freely. When the probe window is full of active keys, the one with the
+ * oldest arrival time, an approximation of the least recently used, is evicted. Concurrent first
+ * calls of a new key may claim two slots; the first one along the probe sequence is then the one every
+ * caller uses, and the other expires like any idle key.
+ * Two keys sharing a fingerprint share their state; with 64-bit fingerprints this is negligible.
+ */
+public class OffHeapKeyedRateLimitStrategy implements KeyedRateLimitStrategy {
+	private static final VarHandle WORD = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	private static final int SLOT_BYTES = 16;
+	private static final int TAT_OFFSET = 8;
+	private static final int MAX_PROBES = 16;
+	private static final long EMPTY = 0;
+	private static final int KEY_COUNT_SAMPLES = 4096;
+
+	private final ByteBuffer table;
+	private final int mask;
+	private volatile GcraRateLimitStrategy.Rate rate;
+	private final AtomicLong evictions = new AtomicLong(0);
+
+	public OffHeapKeyedRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config) {
+		int slots = slotsFor(config.getMaxKeys());
+		if ((long) slots * SLOT_BYTES > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("OFF_HEAP key storage cannot hold " + config.getMaxKeys() + " keys");
+		}
+		// Word-aligned so the VarHandle can perform atomic accesses
+		this.table = ByteBuffer.allocateDirect(slots * SLOT_BYTES + 8).alignedSlice(8);
+		this.mask = slots - 1;
+		this.rate = new GcraRateLimitStrategy.Rate(config);
+	}
+
+	private static int slotsFor(int maxKeys) {
+		return Integer.highestOneBit(Math.max(MAX_PROBES, maxKeys) - 1) << 1;
+	}
+
+	/**
+	 * Switches every key to the new rate in place; a table of another size needs a new instance
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		if (slotsFor(config.getMaxKeys()) != mask + 1) {
+			return false;
+		}
+		rate = new GcraRateLimitStrategy.Rate(config);
+		return true;
+	}
+
+	@Override
+	public boolean tryConsumePermission(String key) {
+		return tryConsumePermission(key, 1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(String key, int permits) {
+		return reservePermission(key, permits, 0) == 0;
+	}
+
+	@Override
+	public long reservePermission(String key, int permits, long maxWaitNanos) {
+		long fingerprint = fingerprint(key);
+		long now = System.nanoTime();
+		return reserve(findSlot(fingerprint, now), now, permits, maxWaitNanos);
+	}
+
+	/**
+	 * Finds the slot of a fingerprint, claiming an empty, stale or evicted slot if it has none
+	 * @return byte offset of the slot
+	 */
+	private int findSlot(long fingerprint, long now) {
+		int start = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+		while (true) {
+			int stale = -1;
+			long staleFingerprint = EMPTY;
+			int victim = -1;
+			long victimFingerprint = EMPTY;
+			long victimTat = 0;
+			int empty = -1;
+			for (int probe = 0; probe < MAX_PROBES; probe++) {
+				int offset = ((start + probe) & mask) * SLOT_BYTES;
+				long current = (long) WORD.getVolatile(table, offset);
+				if (current == fingerprint) {
+					return offset;
+				}
+				if (current == EMPTY) {
+					// Keys are never removed, so the fingerprint cannot be further along the chain
+					empty = offset;
+					break;
+				}
+				long tat = (long) WORD.getVolatile(table, offset + TAT_OFFSET);
+				if (tat - now <= 0) {
+					if (stale < 0) {
+						stale = offset;
+						staleFingerprint = current;
+					}
+				} else if (victim < 0 || tat - victimTat < 0) {
+					victim = offset;
+					victimFingerprint = current;
+					victimTat = tat;
+				}
+			}
+
+			int offset;
+			long expected;
+			if (stale >= 0) {
+				offset = stale;
+				expected = staleFingerprint;
+			} else if (empty >= 0) {
+				offset = empty;
+				expected = EMPTY;
+			} else {
+				offset = victim;
+				expected = victimFingerprint;
+			}
+			if (WORD.compareAndSet(table, offset, expected, fingerprint)) {
+				// A stale slot's arrival time is in the past, which already grants a full burst. Others start
+				// over from now, unless a concurrent caller of the new key reserved on the slot meanwhile
+				if (offset == victim) {
+					evictions.incrementAndGet();
+					WORD.compareAndSet(table, offset + TAT_OFFSET, victimTat, now);
+				} else if (expected == EMPTY) {
+					WORD.compareAndSet(table, offset + TAT_OFFSET, 0L, now);
+				}
+				return firstSlotOf(fingerprint, start, offset);
+			}
+			// Lost the slot to a concurrent caller, probe again
+		}
+	}
+
+	/**
+	 * Slot every caller finds for a fingerprint just claimed at {@code claimed}: the first holding it
+	 * along the probe sequence, in case a concurrent caller of the same key claimed another slot
+	 */
+	private int firstSlotOf(long fingerprint, int start, int claimed) {
+		for (int probe = 0; probe < MAX_PROBES; probe++) {
+			int offset = ((start + probe) & mask) * SLOT_BYTES;
+			long current = (long) WORD.getVolatile(table, offset);
+			if (current == fingerprint) {
+				return offset;
+			}
+			if (current == EMPTY) {
+				break;
+			}
+		}
+		return claimed;
+	}
+
+	private long reserve(int offset, long now, int permits, long maxWaitNanos) {
+		GcraRateLimitStrategy.Rate rate = this.rate;
+		int tatOffset = offset + TAT_OFFSET;
+		while (true) {
+			long tat = (long) WORD.getVolatile(table, tatOffset);
+			long next = Math.max(tat, now) + permits * rate.emissionIntervalNanos;
+			long wait = next - now - rate.toleranceNanos;
+			if (wait > maxWaitNanos) {
+				return -1;
+			}
+			if (WORD.compareAndSet(table, tatOffset, tat, next)) {
+				return Math.max(0, wait);
+			}
+		}
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of the key, finalized with the MurmurHash3 mixer. Never returns {@link #EMPTY}.
+	 */
+	private static long fingerprint(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash == EMPTY ? 1 : hash;
+	}
+
+	/**
+	 * Approximate number of keys whose arrival time is still ahead, the only ones holding state. Keys expire
+	 * by the clock alone, with no write to count, so they are estimated from at most {@value #KEY_COUNT_SAMPLES}
+	 * evenly spaced slots, starting at a random one, scaled to the whole table. Exact for tables no larger,
+	 * and bounded in cost whatever the size of the table.
+	 */
+	@Override
+	public int getKeyCount() {
+		int slots = mask + 1;
+		int stride = Math.max(1, slots / KEY_COUNT_SAMPLES);
+		long now = System.nanoTime();
+		int live = 0;
+		for (int slot = ThreadLocalRandom.current().nextInt(stride); slot < slots; slot += stride) {
+			int offset = slot * SLOT_BYTES;
+			if ((long) WORD.getVolatile(table, offset) != EMPTY
+					&& (long) WORD.getVolatile(table, offset + TAT_OFFSET) - now > 0) {
+				live++;
+			}
+		}
+		return live * stride;
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Number of slots of the table
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+}
@@ -0,0 +1,246 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulkhead implementation serving waiters by priority
+ * <p>
+ * Admission is a CAS on the available permits while nobody waits. When the bulkhead is full, callers
+ * wait in one FIFO per priority; released permits are handed over directly to the head of the highest
+ * non-empty tier, so a call of lower priority never overtakes a waiting call of higher priority.
+ * When the queue is full, a caller evicts the newest waiter of the lowest tier below its own, if any.
+ * Each operation on the queue touches at most {@link #PRIORITY_LEVELS} tiers and never sorts.
+ * Under ADAPTIVE_LIFO, the newest waiter of a tier is served first while the queue is congested.
+ */
+public class PriorityBulkheadStrategy implements BulkheadStrategy {
+	private static final int WAITING = 0;
+	private static final int GRANTED = 1;
+	private static final int REJECTED = 2;
+
+	private final AtomicInteger available;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final ArrayDeque<Waiter>[] tiers;
+	private final QueueDiscipline discipline;
+	private volatile int queued;
+	private volatile int limit;
+	private volatile int maxQueueSize;
+	private volatile long queueTimeoutNanos;
+
+	private static final class Waiter {
+		final Thread thread;
+		final int permits;
+		long timeoutNanos;
+		volatile int state = WAITING;
+
+		Waiter(int permits) {
+			this.thread = Thread.currentThread();
+			this.permits = permits;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public PriorityBulkheadStrategy(BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.limit = config.getMaxConcurrentCalls();
+		this.available = new AtomicInteger(limit);
+		this.maxQueueSize = Math.max(0, config.getMaxQueueSize());
+		this.queueTimeoutNanos = config.getQueueTimeout().toNanos();
+		this.discipline = new QueueDiscipline(config);
+		this.tiers = new ArrayDeque[PRIORITY_LEVELS];
+		for (int i = 0; i < PRIORITY_LEVELS; i++) {
+			tiers[i] = new ArrayDeque<>();
+		}
+	}
+
+	@Override
+	public boolean tryAcquirePermission() {
+		return tryAcquirePermission(1, DEFAULT_PRIORITY);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits) {
+		return tryAcquirePermission(permits, DEFAULT_PRIORITY);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits, int priority) {
+		// Waiters are served first; the queue is only bypassed when empty
+		if (queued == 0 && take(permits)) {
+			return true;
+		}
+		if (maxQueueSize == 0 || permits > limit) {
+			return false;
+		}
+
+		int tier = Math.max(0, Math.min(PRIORITY_LEVELS - 1, priority));
+		Waiter waiter = new Waiter(permits);
+		lock.lock();
+		try {
+			if (queued >= maxQueueSize && !shedBelow(tier)) {
+				return false;
+			}
+			waiter.timeoutNanos = discipline.enter(queued, queueTimeoutNanos);
+			tiers[tier].addLast(waiter);
+			queued++;
+			// Permits may have been released before the waiter was counted
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+		return await(waiter, tier);
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow() {
+		return tryAcquirePermissionNow(1);
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow(int permits) {
+		return queued == 0 && take(permits);
+	}
+
+	@Override
+	public void releasePermission() {
+		release(1);
+	}
+
+	@Override
+	public void releaseUnusedPermission(int permits) {
+		release(permits);
+	}
+
+	@Override
+	public void releasePermission(int permits, long elapsedNanos) {
+		release(permits);
+	}
+
+	/**
+	 * Resizes the bulkhead and its queue in place; waiters already queued keep their place
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		lock.lock();
+		try {
+			int newLimit = config.getMaxConcurrentCalls();
+			available.addAndGet(newLimit - limit);
+			limit = newLimit;
+			maxQueueSize = Math.max(0, config.getMaxQueueSize());
+			queueTimeoutNanos = config.getQueueTimeout().toNanos();
+			discipline.reconfigure(config);
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+		return true;
+	}
+
+	@Override
+	public BulkheadMetrics getMetrics() {
+		return new BulkheadMetrics(
+				Math.max(0, available.get()),
+				limit,
+				queued,
+				maxQueueSize
+		);
+	}
+
+	private boolean take(int permits) {
+		int current;
+		do {
+			current = available.get();
+			if (current < permits) {
+				return false;
+			}
+		} while (!available.compareAndSet(current, current - permits));
+		return true;
+	}
+
+	private void release(int permits) {
+		available.addAndGet(permits);
+		if (queued > 0) {
+			lock.lock();
+			try {
+				dispatch();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Hands the available permits to the heads of the highest tiers; a heavy head waits for enough
+	 * permits rather than being overtaken. Called with the lock held.
+	 */
+	private void dispatch() {
+		for (int tier = PRIORITY_LEVELS - 1; tier >= 0 && queued > 0; ) {
+			boolean lifo = discipline.isLifo();
+			Waiter head = lifo ? tiers[tier].peekLast() : tiers[tier].peekFirst();
+			if (head == null) {
+				tier--;
+				continue;
+			}
+			if (!take(head.permits)) {
+				return;
+			}
+			if (lifo) {
+				tiers[tier].pollLast();
+			} else {
+				tiers[tier].pollFirst();
+			}
+			discipline.leave(--queued);
+			head.state = GRANTED;
+			LockSupport.unpark(head.thread);
+		}
+	}
+
+	/**
+	 * Rejects the newest waiter of the lowest tier below the given one. Called with the lock held.
+	 * @return false if no waiter has a lower priority
+	 */
+	private boolean shedBelow(int tier) {
+		for (int lower = 0; lower < tier; lower++) {
+			Waiter victim = tiers[lower].pollLast();
+			if (victim != null) {
+				// The slot goes to the caller right away, so the queue does not count as emptied
+				queued--;
+				victim.state = REJECTED;
+				LockSupport.unpark(victim.thread);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean await(Waiter waiter, int tier) {
+		long deadline = System.nanoTime() + waiter.timeoutNanos;
+		boolean interrupted = false;
+		while (waiter.state == WAITING) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0 || interrupted) {
+				lock.lock();
+				try {
+					if (waiter.state == WAITING && tiers[tier].removeFirstOccurrence(waiter)) {
+						discipline.leave(--queued);
+						waiter.state = REJECTED;
+						// A heavy waiter leaving may unblock lighter ones behind it
+						dispatch();
+					}
+				} finally {
+					lock.unlock();
+				}
+				break;
+			}
+			LockSupport.parkNanos(this, remaining);
+			interrupted = Thread.interrupted();
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return waiter.state == GRANTED;
+	}
+}
@@ -0,0 +1,88 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+/**
+ * Order and time limit of the calls waiting in a bulkhead queue
+ * <p>
+ * A queue that keeps emptying is absorbing bursts, while one that has not been empty for a whole
+ * {@code codelInterval} holds a standing backlog: its callers will mostly wait the full timeout
+ * and be served after they gave up. Under CODEL, every waiter, already queued or entering, is dropped
+ * once the queue is congested and it has waited more than {@code codelTarget}, so the backlog is shed
+ * quickly and latency stays bounded. Congestion only depends on how long the queue has been non-empty,
+ * so a waiter alone in the queue is dropped too, after {@code codelInterval}: no waiter ever waits longer
+ * than the later of {@code codelTarget} and {@code codelInterval}, and the queue timeout only matters
+ * when shorter. ADAPTIVE_LIFO also serves the newest waiters first while congested, as they are the most
+ * likely to still be waited on; the queue is FIFO again once it empties.
+ * <p>
+ * The only state is the instant the queue was last seen empty, so the queue owner reports its size
+ * as calls enter and leave. That instant cannot move while a waiter is queued, as the queue is not empty
+ * meanwhile, so the moment a waiter is to be dropped is known when it enters: it becomes its deadline,
+ * and the queues need no scan to expire their waiters.
+ */
+public final class QueueDiscipline {
+	private volatile boolean controlled;
+	private volatile boolean lifo;
+	private volatile long targetNanos;
+	private volatile long intervalNanos;
+	private volatile long lastEmptyNanos = System.nanoTime();
+
+	public QueueDiscipline(BulkheadRateLimitProperties.BulkheadConfig config) {
+		reconfigure(config);
+	}
+
+	/**
+	 * Applies new settings, keeping the congestion state; unknown disciplines are FIFO
+	 */
+	public void reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		String discipline = config == null ? null : config.getQueueDiscipline();
+		if ("CODEL".equalsIgnoreCase(discipline)) {
+			lifo = false;
+		} else if ("ADAPTIVE_LIFO".equalsIgnoreCase(discipline)) {
+			lifo = true;
+		} else {
+			controlled = false;
+			lifo = false;
+			return;
+		}
+		targetNanos = config.getCodelTarget().toNanos();
+		intervalNanos = config.getCodelInterval().toNanos();
+		controlled = true;
+	}
+
+	/**
+	 * Records a call entering the queue
+	 * @param queuedBefore number of calls that were already waiting
+	 * @param timeoutNanos the configured queue timeout
+	 * @return how long this call may wait: until it has waited {@code codelTarget} in a congested queue,
+	 * that is the later of {@code codelTarget} from now and the moment the queue becomes congested
+	 */
+	public long enter(int queuedBefore, long timeoutNanos) {
+		if (!controlled) {
+			return timeoutNanos;
+		}
+		long now = System.nanoTime();
+		if (queuedBefore == 0) {
+			lastEmptyNanos = now;
+		}
+		long untilCongested = lastEmptyNanos + intervalNanos - now;
+		return Math.min(timeoutNanos, Math.max(targetNanos, untilCongested));
+	}
+
+	/**
+	 * Records a call leaving the queue, granted or not
+	 * @param queuedAfter number of calls still waiting
+	 */
+	public void leave(int queuedAfter) {
+		if (controlled && queuedAfter == 0) {
+			lastEmptyNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Whether the newest waiter should be served next
+	 */
+	public boolean isLifo() {
+		return lifo && controlled && System.nanoTime() - lastEmptyNanos > intervalNanos;
+	}
+}
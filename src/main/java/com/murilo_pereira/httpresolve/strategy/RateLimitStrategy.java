@@ -1,17 +1,76 @@
 package com.murilo_pereira.httpresolve.strategy;
 
 
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
 import com.murilo_pereira.httpresolve.exception.RateLimitException;
 
 /**
  * Strategy interface for rate limiter implementations
+ * <p>
+ * Implementations override at least one of {@link #tryConsumePermission()} and {@link #consumePermission()},
+ * each defaulting to the other: the built-in ones override the former, which rejects without throwing.
  */
 public interface RateLimitStrategy {
 	/**
-	 * Attempts to consume a token from the rate limiter
+	 * Attempts to consume a token from the rate limiter without throwing on rejection.
+	 * Defaults to {@link #consumePermission()}, for implementations written before this method existed;
+	 * those pay for an exception on every rejection until they override it.
+	 * @return true if the token was consumed, false if rate limit is exceeded
+	 */
+	default boolean tryConsumePermission() {
+		try {
+			consumePermission();
+			return true;
+		} catch (RateLimitException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Attempts to consume several tokens at once, for a call weighing {@code permits} calls.
+	 * Either all tokens are consumed or none.
+	 * @param permits the number of tokens, at least 1
+	 * @return true if the tokens were consumed, false if rate limit is exceeded
+	 * @throws UnsupportedOperationException if the implementation only supports single tokens
+	 */
+	default boolean tryConsumePermission(int permits) {
+		if (permits == 1) {
+			return tryConsumePermission();
+		}
+		throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support weighted permits");
+	}
+
+	/**
+	 * Reserves tokens that may only become available in the future, instead of rejecting the call.
+	 * The tokens are taken right away, so concurrent callers are spaced one after the other.
+	 * Implementations that cannot schedule future tokens only admit calls that fit now.
+	 * @param permits the number of tokens, at least 1
+	 * @param maxWaitNanos the longest the caller accepts to wait for them
+	 * @return the time the caller must wait before proceeding, 0 to proceed now, or -1 if the tokens
+	 * are not available within {@code maxWaitNanos}, in which case nothing is reserved
+	 */
+	default long reservePermission(int permits, long maxWaitNanos) {
+		return tryConsumePermission(permits) ? 0 : -1;
+	}
+
+	/**
+	 * Attempts to consume a token from the rate limiter. Defaults to {@link #tryConsumePermission()}.
 	 * @throws RateLimitException if rate limit is exceeded
 	 */
-	void consumePermission() throws RateLimitException;
+	default void consumePermission() throws RateLimitException {
+		if (!tryConsumePermission()) {
+			throw new RateLimitException("Rate limit exceeded");
+		}
+	}
+
+	/**
+	 * Applies a new configuration in place, keeping the requests already counted
+	 * @param config the new configuration of the policy
+	 * @return false if this instance cannot follow the change and must be replaced
+	 */
+	default boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		return false;
+	}
 
 	/**
 	 * Gets the current usage statistics
@@ -27,12 +86,20 @@ public interface RateLimitStrategy {
 		private final int limit;
 		private final long windowDurationMillis;
 		private final long remainingWindowMillis;
+		private final long nanosToNextPermit;
 
 		public RateLimitMetrics(int available, int limit, long windowDurationMillis, long remainingWindowMillis) {
+			this(available, limit, windowDurationMillis, remainingWindowMillis,
+					available > 0 ? 0 : remainingWindowMillis * 1_000_000L);
+		}
+
+		public RateLimitMetrics(int available, int limit, long windowDurationMillis, long remainingWindowMillis,
+								long nanosToNextPermit) {
 			this.available = available;
 			this.limit = limit;
 			this.windowDurationMillis = windowDurationMillis;
 			this.remainingWindowMillis = remainingWindowMillis;
+			this.nanosToNextPermit = nanosToNextPermit;
 		}
 
 		// Getters
@@ -51,6 +118,13 @@ public interface RateLimitStrategy {
 		public long getRemainingWindowMillis() {
 			return remainingWindowMillis;
 		}
+
+		/**
+		 * Time until the next permit can be consumed, 0 if a permit is available now
+		 */
+		public long getNanosToNextPermit() {
+			return nanosToNextPermit;
+		}
 	}
 }
 
@@ -0,0 +1,32 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fair semaphore whose number of permits can change while permits are held
+ * <p>
+ * Shrinking below the permits in use leaves the semaphore in debt: released permits pay it back
+ * before anyone else is admitted, so calls in flight finish undisturbed.
+ */
+class ResizableSemaphore extends Semaphore {
+	private volatile int permits;
+
+	ResizableSemaphore(int permits) {
+		super(permits, true);
+		this.permits = permits;
+	}
+
+	synchronized void resize(int newPermits) {
+		int delta = newPermits - permits;
+		if (delta > 0) {
+			release(delta);
+		} else if (delta < 0) {
+			reducePermits(-delta);
+		}
+		permits = newPermits;
+	}
+
+	int getPermits() {
+		return permits;
+	}
+}
@@ -3,22 +3,20 @@ package com.murilo_pereira.httpresolve.strategy;
 
 
 import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
-import com.murilo_pereira.httpresolve.exception.BulkheadException;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Bulkhead implementation using a Semaphore and a queue
  */
 public class SemaphoreBulkheadStrategy implements BulkheadStrategy {
-	private final Semaphore semaphore;
+	private final ResizableSemaphore semaphore;
 	private final BlockingQueue<QueuedCall> queue;
-	private final int maxConcurrentCalls;
 	private final int maxQueueSize;
-	private final long queueTimeoutMillis;
+	private final QueueDiscipline discipline;
+	private volatile long queueTimeoutNanos;
 
 	private static class QueuedCall {
 		final long timestamp;
@@ -29,66 +27,97 @@ public class SemaphoreBulkheadStrategy implements BulkheadStrategy {
 	}
 
 	public SemaphoreBulkheadStrategy(BulkheadRateLimitProperties.BulkheadConfig config) {
-		this.maxConcurrentCalls = config.getMaxConcurrentCalls();
 		this.maxQueueSize = config.getMaxQueueSize();
-		this.queueTimeoutMillis = config.getQueueTimeout().toMillis();
+		this.queueTimeoutNanos = config.getQueueTimeout().toNanos();
+		this.discipline = new QueueDiscipline(config);
 
-		this.semaphore = new Semaphore(maxConcurrentCalls, true);
+		this.semaphore = new ResizableSemaphore(config.getMaxConcurrentCalls());
 		this.queue = maxQueueSize > 0 ? new ArrayBlockingQueue<>(maxQueueSize) : null;
 	}
 
 	@Override
-	public void acquirePermission() throws BulkheadException {
-		boolean permitted = false;
+	public boolean tryAcquirePermission() {
+		return tryAcquirePermission(1);
+	}
+
+	@Override
+	public boolean tryAcquirePermission(int permits) {
+		// Try direct acquire first
+		if (semaphore.tryAcquire(permits)) {
+			return true;
+		}
+
+		// Capacity full and queueing not enabled, or a call heavier than the whole bulkhead
+		if (queue == null || permits > semaphore.getPermits()) {
+			return false;
+		}
+
+		// Try to enqueue
+		QueuedCall call = new QueuedCall();
+		if (!queue.offer(call)) {
+			return false;
+		}
 
 		try {
-			// Try direct acquire first
-			permitted = semaphore.tryAcquire();
-
-			// If not permitted and queue is available, try queueing
-			if (!permitted && queue != null) {
-				QueuedCall call = new QueuedCall();
-
-				// Try to enqueue
-				if (!queue.offer(call)) {
-					throw new BulkheadException("Bulkhead queue is full");
-				}
-
-				try {
-					// Wait for a permit to become available
-					permitted = semaphore.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
-
-					if (!permitted) {
-						// Remove from queue if timed out
-						queue.remove(call);
-						throw new BulkheadException("Bulkhead queue wait timeout exceeded");
-					}
-				} finally {
-					// Remove from queue regardless
-					queue.remove(call);
-				}
-			} else if (!permitted) {
-				throw new BulkheadException("Bulkhead capacity full and queueing not enabled");
-			}
+			// Wait for a permit to become available; the fair semaphore keeps waiters in FIFO order
+			long timeoutNanos = discipline.enter(queue.size() - 1, queueTimeoutNanos);
+			return semaphore.tryAcquire(permits, timeoutNanos, TimeUnit.NANOSECONDS);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
-			throw new BulkheadException("Thread was interrupted while waiting for bulkhead", e);
+			return false;
+		} finally {
+			queue.remove(call);
+			discipline.leave(queue.size());
 		}
 	}
 
+	@Override
+	public boolean tryAcquirePermissionNow() {
+		return semaphore.tryAcquire();
+	}
+
+	@Override
+	public boolean tryAcquirePermissionNow(int permits) {
+		return semaphore.tryAcquire(permits);
+	}
+
 	@Override
 	public void releasePermission() {
 		semaphore.release();
 	}
 
+	@Override
+	public void releaseUnusedPermission(int permits) {
+		semaphore.release(permits);
+	}
+
+	@Override
+	public void releasePermission(int permits, long elapsedNanos) {
+		semaphore.release(permits);
+	}
+
+	/**
+	 * Resizes the semaphore in place; the queue is bounded at creation, so a new queue size needs a new instance
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		if (Math.max(0, config.getMaxQueueSize()) != Math.max(0, maxQueueSize)) {
+			return false;
+		}
+		semaphore.resize(config.getMaxConcurrentCalls());
+		queueTimeoutNanos = config.getQueueTimeout().toNanos();
+		discipline.reconfigure(config);
+		return true;
+	}
+
 	@Override
 	public BulkheadMetrics getMetrics() {
 		int queueSize = queue != null ? queue.size() : 0;
 		int queueCapacity = queue != null ? queue.remainingCapacity() + queueSize : 0;
 
 		return new BulkheadMetrics(
-				semaphore.availablePermits(),
-				maxConcurrentCalls,
+				Math.max(0, semaphore.availablePermits()),
+				semaphore.getPermits(),
 				queueSize,
 				queueCapacity
 		);
@@ -0,0 +1,178 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding Window Rate Limiter Implementation
+ * <p>
+ * Approximates a true sliding window with two fixed buckets: the count of the previous window is
+ * weighted by how much of it still overlaps the sliding window, and added to the current count.
+ * Window index, previous count and current count are packed in a single {@code long}, so the state
+ * is O(1) per policy and every update is a single CAS. The packed index wraps around after
+ * 2<sup>24</sup> windows, so the full index of the last recorded window is also kept, read to expire
+ * the counts after a long idle period whatever the packed index.
+ */
+public class SlidingWindowRateLimitStrategy implements RateLimitStrategy {
+	private static final int COUNT_BITS = 20;
+	private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+	private static final int WINDOW_SHIFT = COUNT_BITS * 2;
+	private static final long WINDOW_MASK = (1L << (Long.SIZE - WINDOW_SHIFT)) - 1;
+	// Returned by rollTo when a newer window was recorded than the caller's
+	private static final long STALE = -1;
+
+	/**
+	 * Highest limit that fits in the packed counters
+	 */
+	public static final int MAX_LIMIT = (int) COUNT_MASK;
+
+	private volatile int limit;
+	private final long windowMillis;
+	private final long windowNanos;
+	private final long origin = System.nanoTime();
+	private final AtomicLong state = new AtomicLong(0);
+	// Full index of the last recorded window, only written when the window changes
+	private volatile long lastWindow;
+
+	public SlidingWindowRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config) {
+		this.limit = checkLimit(config.getLimit());
+		this.windowMillis = config.getWindow().toMillis();
+		this.windowNanos = Math.max(1, config.getWindow().toNanos());
+	}
+
+	private static int checkLimit(int limit) {
+		if (limit > MAX_LIMIT) {
+			throw new IllegalArgumentException("SLIDING_WINDOW limit cannot exceed " + MAX_LIMIT);
+		}
+		return limit;
+	}
+
+	@Override
+	public boolean tryConsumePermission() {
+		return tryConsumePermission(1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(int permits) {
+		int limit = this.limit;
+		long elapsed = System.nanoTime() - origin;
+		long window = elapsed / windowNanos;
+		double overlap = 1.0 - (double) (elapsed - window * windowNanos) / windowNanos;
+
+		while (true) {
+			long current = state.get();
+			long counts = rollTo(current, window);
+			if (counts == STALE) {
+				// A concurrent caller already moved to a later window: read the clock again
+				elapsed = System.nanoTime() - origin;
+				window = elapsed / windowNanos;
+				overlap = 1.0 - (double) (elapsed - window * windowNanos) / windowNanos;
+				continue;
+			}
+			long previousCount = counts >>> COUNT_BITS;
+			long currentCount = counts & COUNT_MASK;
+
+			if (previousCount * overlap + currentCount + permits > limit) {
+				return false;
+			}
+
+			long next = ((window & WINDOW_MASK) << WINDOW_SHIFT) | (previousCount << COUNT_BITS) | (currentCount + permits);
+			if (state.compareAndSet(current, next)) {
+				if (window > lastWindow) {
+					lastWindow = window;
+				}
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Shifts the packed counters of {@code state} to {@code window}.
+	 * The window index is stored modulo its bit width, so only the distance between windows matters,
+	 * once a gap long enough for the index to wrap around has been ruled out.
+	 * @return previous and current counts packed as in the state word, without the window index,
+	 * or {@link #STALE} if a later window than {@code window} was already recorded
+	 */
+	private long rollTo(long state, long window) {
+		if (window - lastWindow > WINDOW_MASK / 2) {
+			// Idle for so long that the packed index may have wrapped around: everything expired
+			return 0;
+		}
+		long distance = (window - (state >>> WINDOW_SHIFT)) & WINDOW_MASK;
+		long counts = state & ((1L << WINDOW_SHIFT) - 1);
+		if (distance == 0) {
+			return counts;
+		}
+		if (distance > WINDOW_MASK / 2) {
+			return STALE;
+		}
+		if (distance == 1) {
+			return (counts & COUNT_MASK) << COUNT_BITS;
+		}
+		return 0;
+	}
+
+	/**
+	 * Applies a new limit to the counted requests; the window index is tied to the window length,
+	 * so a new window needs a new instance
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		if (Math.max(1, config.getWindow().toNanos()) != windowNanos) {
+			return false;
+		}
+		limit = checkLimit(config.getLimit());
+		return true;
+	}
+
+	@Override
+	public RateLimitMetrics getMetrics() {
+		int limit = this.limit;
+		long elapsed = System.nanoTime() - origin;
+		long window = elapsed / windowNanos;
+		long offset = elapsed - window * windowNanos;
+		double overlap = 1.0 - (double) offset / windowNanos;
+
+		long counts = rollTo(state.get(), window);
+		if (counts == STALE) {
+			// Read just before a concurrent caller moved to the next window: report that window's counts
+			counts = state.get() & ((1L << WINDOW_SHIFT) - 1);
+		}
+		long previousCount = counts >>> COUNT_BITS;
+		long currentCount = counts & COUNT_MASK;
+		double estimate = previousCount * overlap + currentCount;
+		int available = (int) Math.max(0, limit - (long) Math.ceil(estimate));
+
+		return new RateLimitMetrics(
+				available,
+				limit,
+				windowMillis,
+				TimeUnit.NANOSECONDS.toMillis(windowNanos - offset),
+				nanosToNextPermit(previousCount, currentCount, offset)
+		);
+	}
+
+	/**
+	 * Time until the weighted count leaves room for one more request, assuming no other arrivals
+	 */
+	private long nanosToNextPermit(long previousCount, long currentCount, long offset) {
+		if (currentCount + 1 > limit) {
+			// The current window is exhausted: wait for it to become the previous one and decay
+			return (windowNanos - offset) + nanosUntilDecayed(currentCount, 0);
+		}
+		return Math.max(0, nanosUntilDecayed(previousCount, currentCount) - offset);
+	}
+
+	/**
+	 * Offset into a window at which {@code previousCount * overlap + currentCount + 1 <= limit}
+	 */
+	private long nanosUntilDecayed(long previousCount, long currentCount) {
+		if (previousCount == 0) {
+			return 0;
+		}
+		double maxOverlap = (double) (limit - currentCount - 1) / previousCount;
+		return (long) Math.ceil(Math.max(0.0, 1.0 - maxOverlap) * windowNanos);
+	}
+}
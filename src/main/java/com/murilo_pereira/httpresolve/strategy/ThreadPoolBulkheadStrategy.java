@@ -0,0 +1,298 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.exception.BulkheadException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead implementation isolating calls on a dedicated bounded executor
+ * <p>
+ * Protected calls run on up to {@code maxConcurrentCalls} threads of the policy, and up to
+ * {@code maxQueueSize} calls wait for one. Platform threads are pooled, queued calls waiting in the
+ * executor queue; virtual threads (Java 21+) are never pooled: each admitted call starts its own,
+ * which waits its turn on a fair semaphore of {@code maxConcurrentCalls} permits. The caller waits for
+ * the result at most {@code callTimeout}, so a slow dependency holds bulkhead threads instead of the
+ * caller's request threads. Thread-bound context (request attributes, security context...) is not
+ * propagated to the bulkhead threads.
+ */
+public class ThreadPoolBulkheadStrategy implements BulkheadStrategy {
+	private static final Logger log = LoggerFactory.getLogger(ThreadPoolBulkheadStrategy.class);
+
+	/**
+	 * Shared stackless rejection, so a full pool costs no allocation
+	 */
+	private static final RejectedExecutionException REJECTED = new RejectedExecutionException("Bulkhead queue is full") {
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	};
+
+	private final ExecutorService executor;
+	// The pool of platform threads and its queue, or null with virtual threads
+	private final ThreadPoolExecutor pool;
+	private final BlockingQueue<Runnable> queue;
+	// With virtual threads: calls running, and calls admitted whether running or waiting their turn
+	private final ResizableSemaphore running;
+	private final AtomicInteger admitted;
+	private final int maxQueueSize;
+	private final String threadType;
+	private volatile int maxConcurrentCalls;
+	private volatile long callTimeoutNanos;
+
+	public ThreadPoolBulkheadStrategy(String name, BulkheadRateLimitProperties.BulkheadConfig config) {
+		this.maxConcurrentCalls = config.getMaxConcurrentCalls();
+		this.maxQueueSize = Math.max(0, config.getMaxQueueSize());
+		this.callTimeoutNanos = config.getCallTimeout().toNanos();
+		this.threadType = config.getThreadType();
+
+		ExecutorService virtual = "VIRTUAL".equalsIgnoreCase(threadType) ? virtualThreadPerTaskExecutor(name) : null;
+		if (virtual != null) {
+			this.executor = virtual;
+			this.pool = null;
+			this.queue = null;
+			this.running = new ResizableSemaphore(maxConcurrentCalls);
+			this.admitted = new AtomicInteger(0);
+			return;
+		}
+		this.queue = maxQueueSize > 0 ? new ArrayBlockingQueue<>(maxQueueSize) : new SynchronousQueue<>();
+		this.pool = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls,
+				60, TimeUnit.SECONDS, queue, platformThreadFactory(name),
+				(runnable, pool) -> {
+					throw REJECTED;
+				});
+		this.pool.allowCoreThreadTimeOut(true);
+		this.executor = pool;
+		this.running = null;
+		this.admitted = null;
+	}
+
+	/**
+	 * Executor starting a named virtual thread per call, resolved reflectively to keep Java 17 compatibility
+	 * @return the executor, or null if virtual threads are not available
+	 */
+	private static ExecutorService virtualThreadPerTaskExecutor(String name) {
+		try {
+			// Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "bulkhead-" + name + "-", 0L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			log.warn("Virtual threads are not available on this JVM, bulkhead {} uses platform threads", name);
+			return null;
+		}
+	}
+
+	private static ThreadFactory platformThreadFactory(String name) {
+		String prefix = "bulkhead-" + name + "-";
+		AtomicInteger counter = new AtomicInteger(0);
+		ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+		return runnable -> {
+			Thread thread = defaultFactory.newThread(runnable);
+			thread.setName(prefix + counter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Submits a call to the policy's executor
+	 * @param call the protected call
+	 * @return the pending result, to be waited through {@link #await(Future)},
+	 * or null if all threads are busy and the queue is full
+	 */
+	public <T> Future<T> submit(Callable<T> call) {
+		if (pool == null) {
+			return submitVirtual(call);
+		}
+		try {
+			return pool.submit(call);
+		} catch (RejectedExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Starts a virtual thread for a call if fewer than {@code maxConcurrentCalls + maxQueueSize} are admitted.
+	 * The call runs once the thread gets one of the {@code maxConcurrentCalls} permits; a call cancelled
+	 * meanwhile never runs. The thread gives back its admission whether the call ran or not.
+	 */
+	private <T> Future<T> submitVirtual(Callable<T> call) {
+		while (true) {
+			int current = admitted.get();
+			if (current >= maxConcurrentCalls + maxQueueSize) {
+				return null;
+			}
+			if (admitted.compareAndSet(current, current + 1)) {
+				break;
+			}
+		}
+		FutureTask<T> task = new FutureTask<>(() -> {
+			running.acquire();
+			try {
+				return call.call();
+			} finally {
+				running.release();
+			}
+		});
+		try {
+			executor.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					admitted.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Draining: no new call is started
+			admitted.decrementAndGet();
+			return null;
+		}
+		return task;
+	}
+
+	/**
+	 * Waits for a submitted call, cancelling it when the call timeout expires. A call cancelled while
+	 * still queued never runs, so whatever it holds must be given back by the caller.
+	 * @return the result of the call
+	 * @throws BulkheadException if the call timed out or the caller was interrupted
+	 * @throws Exception the exception thrown by the call itself
+	 */
+	public <T> T await(Future<T> future) throws Exception {
+		try {
+			return future.get(callTimeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new BulkheadException("Bulkhead call timeout exceeded", e);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new BulkheadException("Thread was interrupted while waiting for bulkhead", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception exception) {
+				throw exception;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Not supported: calls must be handed off through {@link #submit(Callable)}
+	 */
+	@Override
+	public boolean tryAcquirePermission() {
+		throw new UnsupportedOperationException("Thread pool bulkhead runs calls through submit()");
+	}
+
+	/**
+	 * Not supported: calls must be handed off through {@link #submit(Callable)}
+	 */
+	@Override
+	public void releasePermission() {
+		throw new UnsupportedOperationException("Thread pool bulkhead runs calls through submit()");
+	}
+
+	/**
+	 * Resizes the pool and applies the call timeout in place; running and queued calls are kept
+	 * @return false if the queue size or the thread type changed, as the executor must then be replaced
+	 */
+	@Override
+	public synchronized boolean reconfigure(BulkheadRateLimitProperties.BulkheadConfig config) {
+		if (Math.max(0, config.getMaxQueueSize()) != maxQueueSize
+				|| "VIRTUAL".equalsIgnoreCase(config.getThreadType()) != "VIRTUAL".equalsIgnoreCase(threadType)) {
+			return false;
+		}
+		int newSize = config.getMaxConcurrentCalls();
+		if (newSize < 1) {
+			throw new IllegalArgumentException("Thread pool bulkhead needs at least 1 thread, got " + newSize);
+		}
+		if (pool == null) {
+			// Calls running over a lowered limit keep their permits, and new ones wait until below it
+			running.resize(newSize - maxConcurrentCalls);
+		} else if (newSize > pool.getMaximumPoolSize()) {
+			// The core size may never exceed the maximum size, whichever way the pool is resized
+			pool.setMaximumPoolSize(newSize);
+			pool.setCorePoolSize(newSize);
+		} else {
+			pool.setCorePoolSize(newSize);
+			pool.setMaximumPoolSize(newSize);
+		}
+		maxConcurrentCalls = newSize;
+		callTimeoutNanos = config.getCallTimeout().toNanos();
+		return true;
+	}
+
+	@Override
+	public BulkheadMetrics getMetrics() {
+		if (pool == null) {
+			return new BulkheadMetrics(
+					Math.max(0, running.availablePermits()),
+					maxConcurrentCalls,
+					running.getQueueLength(),
+					maxQueueSize
+			);
+		}
+		return new BulkheadMetrics(
+				Math.max(0, maxConcurrentCalls - pool.getActiveCount()),
+				maxConcurrentCalls,
+				queue.size(),
+				maxQueueSize
+		);
+	}
+
+	/**
+	 * Stops accepting calls, letting the running and queued ones complete
+	 */
+	public void drain() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Stops the executor, interrupting running calls
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Fair semaphore whose number of permits can also be lowered
+	 */
+	private static final class ResizableSemaphore extends Semaphore {
+		private ResizableSemaphore(int permits) {
+			super(permits, true);
+		}
+
+		private void resize(int delta) {
+			if (delta > 0) {
+				release(delta);
+			} else if (delta < 0) {
+				reducePermits(-delta);
+			}
+		}
+	}
+}
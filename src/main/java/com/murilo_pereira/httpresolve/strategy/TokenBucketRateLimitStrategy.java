@@ -0,0 +1,119 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token Bucket Rate Limiter Implementation
+ * <p>
+ * Tokens are refilled lazily at {@code limit} tokens per {@code window}, up to {@code burstCapacity}.
+ * The whole bucket state is a single timestamp: the {@link System#nanoTime()} instant at which the
+ * bucket was (or will be) empty. The number of tokens is derived from the time elapsed since then,
+ * so consuming a token is a single CAS that moves this instant forward.
+ * <p>
+ * The rate parameters live in one immutable object, so they can be replaced at runtime while the
+ * bucket keeps its level.
+ * <p>
+ * Reservations move the empty instant into the future, up to the caller's maximum wait: the bucket
+ * then owes tokens, and calls are spaced one token apart until the debt is refilled. With a warm-up
+ * period, the bucket starts empty and refills more slowly at first, see {@link WarmUp}.
+ */
+public class TokenBucketRateLimitStrategy implements RateLimitStrategy {
+	private final AtomicLong emptyAt;
+	private final WarmUp warmUp;
+	private volatile Rate rate;
+
+	private static final class Rate {
+		final int capacity;
+		final long windowMillis;
+		final long nanosPerToken;
+		final long capacityNanos;
+
+		Rate(BulkheadRateLimitProperties.RateLimitConfig config) {
+			int limit = Math.max(1, config.getLimit());
+			this.capacity = config.getBurstCapacity() > 0 ? config.getBurstCapacity() : limit;
+			this.windowMillis = config.getWindow().toMillis();
+			this.nanosPerToken = Math.max(1, config.getWindow().toNanos() / limit);
+			this.capacityNanos = capacity * nanosPerToken;
+		}
+	}
+
+	public TokenBucketRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config) {
+		this(config, Duration.ZERO);
+	}
+
+	/**
+	 * @param warmUp time over which the limiter ramps up to its rate after creation, zero for none
+	 */
+	public TokenBucketRateLimitStrategy(BulkheadRateLimitProperties.RateLimitConfig config, Duration warmUp) {
+		this.rate = new Rate(config);
+		this.warmUp = WarmUp.of(warmUp);
+		// Start with a full bucket, or an empty one while warming up
+		long now = System.nanoTime();
+		this.emptyAt = new AtomicLong(this.warmUp.isEnabled() ? now : now - rate.capacityNanos);
+	}
+
+	@Override
+	public boolean tryConsumePermission() {
+		return tryConsumePermission(1);
+	}
+
+	@Override
+	public boolean tryConsumePermission(int permits) {
+		return reservePermission(permits, 0) == 0;
+	}
+
+	@Override
+	public long reservePermission(int permits, long maxWaitNanos) {
+		Rate rate = this.rate;
+		long now = System.nanoTime();
+		// The capacity follows the refill interval, so a warming bucket keeps its size
+		long interval = warmUp.interval(rate.nanosPerToken, now);
+		long capacityNanos = rate.capacity * interval;
+		while (true) {
+			long current = emptyAt.get();
+			// Tokens never accumulate beyond the burst capacity
+			long next = Math.max(current, now - capacityNanos) + permits * interval;
+			long wait = next - now;
+			if (wait > maxWaitNanos) {
+				return -1;
+			}
+			if (emptyAt.compareAndSet(current, next)) {
+				return Math.max(0, wait);
+			}
+		}
+	}
+
+	/**
+	 * Switches to the new rate; the time since the bucket was empty is then read at the new rate
+	 */
+	@Override
+	public boolean reconfigure(BulkheadRateLimitProperties.RateLimitConfig config) {
+		rate = new Rate(config);
+		return true;
+	}
+
+	@Override
+	public RateLimitMetrics getMetrics() {
+		Rate rate = this.rate;
+		long now = System.nanoTime();
+		long interval = warmUp.interval(rate.nanosPerToken, now);
+		long capacityNanos = rate.capacity * interval;
+		// Negative while reservations keep the bucket in debt
+		long elapsed = Math.min(capacityNanos, now - emptyAt.get());
+		int available = (int) Math.max(0, elapsed / interval);
+		long untilFullNanos = Math.max(0, capacityNanos - elapsed);
+		long nanosToNextPermit = available > 0 ? 0 : interval - elapsed;
+
+		return new RateLimitMetrics(
+				available,
+				rate.capacity,
+				rate.windowMillis,
+				TimeUnit.NANOSECONDS.toMillis(untilFullNanos),
+				nanosToNextPermit
+		);
+	}
+}
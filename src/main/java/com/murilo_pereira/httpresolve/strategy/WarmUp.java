@@ -0,0 +1,46 @@
+package com.murilo_pereira.httpresolve.strategy;
+
+import java.time.Duration;
+
+/**
+ * Linear warm-up ramp of a rate limiter, for nodes that have just started
+ * <p>
+ * Right after startup the limiter admits {@code 1/COLD_FACTOR} of its rate, growing linearly to
+ * the full rate by the end of the warm-up period, so a cold node (JIT, connection pools, caches)
+ * is not handed its full share of traffic at once. Once warm, the ramp costs a single comparison.
+ */
+final class WarmUp {
+	static final int COLD_FACTOR = 3;
+	static final WarmUp NONE = new WarmUp(0, Duration.ZERO);
+
+	private final long startNanos;
+	private final long periodNanos;
+
+	WarmUp(long startNanos, Duration period) {
+		this.startNanos = startNanos;
+		this.periodNanos = Math.max(0, period.toNanos());
+	}
+
+	static WarmUp of(Duration period) {
+		return period == null || period.isZero() || period.isNegative()
+				? NONE
+				: new WarmUp(System.nanoTime(), period);
+	}
+
+	boolean isEnabled() {
+		return periodNanos > 0;
+	}
+
+	/**
+	 * Interval between permits at the given instant, from {@code COLD_FACTOR} times the
+	 * steady interval at startup down to the steady interval once warm
+	 */
+	long interval(long steadyNanos, long now) {
+		long elapsed = now - startNanos;
+		if (elapsed >= periodNanos) {
+			return steadyNanos;
+		}
+		double fraction = (double) Math.max(0, elapsed) / periodNanos;
+		return (long) (steadyNanos * COLD_FACTOR / (1.0 + (COLD_FACTOR - 1) * fraction));
+	}
+}
@@ -0,0 +1,116 @@
+package com.murilo_pereira.httpresolve.core.filter;
+
+import com.murilo_pereira.httpresolve.config.BulkheadRateLimitProperties;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitManager;
+import com.murilo_pereira.httpresolve.core.BulkheadRateLimitRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Requests spelling a mapped path with {@code ;} parameters or percent-encoded characters are limited
+ * like the plain path, as the handler mapping would route them there
+ */
+class FilterPathNormalizationTest {
+	private static final String POLICY = "orders";
+
+	private BulkheadRateLimitManager manager;
+	private List<BulkheadRateLimitProperties.FilterMapping> mappings;
+
+	@BeforeEach
+	void setUp() {
+		// A single call per hour: the first request is admitted, any other is rate limited
+		BulkheadRateLimitProperties.PolicyConfig policy = new BulkheadRateLimitProperties.PolicyConfig();
+		policy.getRateLimit().setStrategy("GCRA");
+		policy.getRateLimit().setLimit(1);
+		policy.getRateLimit().setWindow(Duration.ofHours(1));
+		manager = manager(policy);
+		mappings = List.of(mapping("/api/orders/**"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"/api/orders;x=1", "/api/%6Frders", "/api/orders;x=1/42", "/app/api/%6Frders;a=b"})
+	void servletFilterLimitsNormalizedPath(String uri) throws Exception {
+		BulkheadRateLimitFilter filter = new BulkheadRateLimitFilter(manager, mappings);
+		assertThat(servletStatus(filter, "/api/orders")).isEqualTo(HttpStatus.OK.value());
+		assertThat(servletStatus(filter, uri)).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"/api/orders;x=1", "/api/%6Frders", "/api/orders;x=1/42", "/app/api/%6Frders;a=b"})
+	void webFilterLimitsNormalizedPath(String uri) {
+		BulkheadRateLimitWebFilter filter = new BulkheadRateLimitWebFilter(manager, mappings, 0);
+		assertThat(webStatus(filter, "/api/orders")).isNull();
+		assertThat(webStatus(filter, uri)).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	@Test
+	void unmappedPathIsNotLimited() throws Exception {
+		BulkheadRateLimitFilter filter = new BulkheadRateLimitFilter(manager, mappings);
+		assertThat(servletStatus(filter, "/api/orders")).isEqualTo(HttpStatus.OK.value());
+		assertThat(servletStatus(filter, "/api/%6Frders2")).isEqualTo(HttpStatus.OK.value());
+	}
+
+	@Test
+	void threadPoolPolicyIsRefused() {
+		BulkheadRateLimitProperties.PolicyConfig policy = new BulkheadRateLimitProperties.PolicyConfig();
+		policy.getBulkhead().setType("THREAD_POOL");
+		BulkheadRateLimitManager isolated = manager(policy);
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new BulkheadRateLimitFilter(isolated, mappings))
+				.withMessageContaining("THREAD_POOL");
+	}
+
+	private static int servletStatus(BulkheadRateLimitFilter filter, String uri) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		if (uri.startsWith("/app/")) {
+			request.setContextPath("/app");
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response.getStatus();
+	}
+
+	private static HttpStatus webStatus(BulkheadRateLimitWebFilter filter, String uri) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.method(HttpMethod.GET, URI.create(uri));
+		if (uri.startsWith("/app/")) {
+			request.contextPath("/app");
+		}
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		filter.filter(exchange, ignored -> Mono.empty()).block(Duration.ofSeconds(5));
+		return exchange.getResponse().getStatusCode() == null
+				? null
+				: HttpStatus.valueOf(exchange.getResponse().getStatusCode().value());
+	}
+
+	private static BulkheadRateLimitManager manager(BulkheadRateLimitProperties.PolicyConfig policy) {
+		BulkheadRateLimitProperties properties = new BulkheadRateLimitProperties();
+		properties.getPolicies().put(POLICY, policy);
+		BulkheadRateLimitRegistry registry = new BulkheadRateLimitRegistry(properties);
+		registry.initialize();
+		return new BulkheadRateLimitManager(registry);
+	}
+
+	private static BulkheadRateLimitProperties.FilterMapping mapping(String pattern) {
+		BulkheadRateLimitProperties.FilterMapping mapping = new BulkheadRateLimitProperties.FilterMapping();
+		mapping.setPattern(pattern);
+		mapping.setPolicy(POLICY);
+		return mapping;
+	}
+}